@@ -0,0 +1,14 @@
+package com.example.daoutil;
+
+/**
+ * 在同一个数据库连接上执行的一组操作
+ *
+ * @see DaoUtil#withConnection
+ */
+public interface DaoCallback<R> {
+
+    /**
+     * 使用会话执行数据库操作
+     */
+    R execute(DaoSession session) throws Exception;
+}
@@ -0,0 +1,275 @@
+package com.example.daoutil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 数据库会话，在同一个连接上执行多个操作
+ *
+ * 与 DaoUtil 的静态方法不同，会话中的操作不提交事务、不关闭连接，由 {@link DaoUtil#withConnection} 统一提交和归还连接。
+ * 会话按 sql 缓存 PreparedStatement，同一条 sql 多次执行时只解析一次。缓存有上限，超出时关闭最久未使用的语句。
+ * 正在读取结果的语句不会被复用或关闭：比如在 searchEach 的回调中再次执行同一条 sql 时，另外创建一个不缓存的语句；
+ * 正在读取结果的语句被移出缓存时，读取完毕后再关闭。
+ * 会话不是线程安全的，只能在创建它的线程中使用。
+ */
+public class DaoSession implements AutoCloseable {
+
+    /**
+     * 默认缓存的语句数量
+     */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+
+    private final Connection connection;
+    /**
+     * 缓存预编译语句，按访问顺序排列
+     * key是sql，value是对应的预编译语句
+     */
+    private final LinkedHashMap<String, PreparedStatement> statementCache;
+    /**
+     * 正在读取结果或执行批量语句的语句
+     */
+    private final Set<PreparedStatement> busyStatements = Collections.newSetFromMap(new IdentityHashMap<>());
+    /**
+     * 不在缓存中、尚未关闭的语句：缓存的语句正忙时另外创建的语句，以及正忙时被移出缓存的语句
+     * 语句用完后关闭，通过 prepareStatement 取得的在会话关闭时关闭。
+     */
+    private final Set<PreparedStatement> uncachedStatements = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    DaoSession(Connection connection, int statementCacheSize) {
+        this.connection = connection;
+        int maxSize = statementCacheSize > 0 ? statementCacheSize : DEFAULT_STATEMENT_CACHE_SIZE;
+        this.statementCache = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > maxSize) {
+                    PreparedStatement pst = eldest.getValue();
+                    if (busyStatements.contains(pst)) {
+                        uncachedStatements.add(pst);
+                    } else {
+                        closeStatement(pst);
+                    }
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 执行查询语句，返回Java对象
+     * Java对象要求如下
+     * @see DaoUtil#getJavaBeanFromResultSet
+     */
+    public <T> T search(String sql, List<String> paramList, Class<T> clazz) throws Exception {
+        return searchTyped(sql, SqlParams.ofStrings(paramList), clazz);
+    }
+
+    /**
+     * 参数按各自的类型设置。参数对象可以 clear 后重复使用，配合缓存的语句，设置参数时不分配内存。
+     * @see #search(String, List, Class)
+     */
+    public <T> T searchTyped(String sql, SqlParams params, Class<T> clazz) throws Exception {
+        PreparedStatement pst = acquireStatement(sql);
+        try {
+            DaoUtil.setParams(pst, params);
+            try (ResultSet rs = pst.executeQuery()) {
+                return DaoUtil.getJavaBeanFromResultSet(rs, clazz);
+            }
+        } finally {
+            releaseStatement(pst);
+        }
+    }
+
+    /**
+     * 执行查询语句，返回Java对象集合
+     * Java对象要求如下
+     * @see DaoUtil#getJavaBeanFromResultSet
+     */
+    public <T> List<T> searchList(String sql, List<String> paramList, Class<T> clazz) throws Exception {
+        return searchListTyped(sql, SqlParams.ofStrings(paramList), clazz);
+    }
+
+    /**
+     * 参数按各自的类型设置。参数对象可以 clear 后重复使用，配合缓存的语句，设置参数时不分配内存。
+     * @see #searchList(String, List, Class)
+     */
+    public <T> List<T> searchListTyped(String sql, SqlParams params, Class<T> clazz) throws Exception {
+        PreparedStatement pst = acquireStatement(sql);
+        try {
+            DaoUtil.setParams(pst, params);
+            try (ResultSet rs = pst.executeQuery()) {
+                return DaoUtil.getJavaBeanListFromResultSet(rs, clazz);
+            }
+        } finally {
+            releaseStatement(pst);
+        }
+    }
+
+    /**
+     * 按单个整数主键查询，返回Java对象
+     * 主键直接使用 setLong 设置，配合缓存的语句，设置参数时不分配内存。
+     */
+    public <T> T search(String sql, long key, Class<T> clazz) throws Exception {
+        PreparedStatement pst = acquireStatement(sql);
+        try {
+            pst.setLong(1, key);
+            try (ResultSet rs = pst.executeQuery()) {
+                return DaoUtil.getJavaBeanFromResultSet(rs, clazz);
+            }
+        } finally {
+            releaseStatement(pst);
+        }
+    }
+
+    /**
+     * 按单个整数主键查询，返回Java对象集合
+     * @see #search(String, long, Class)
+     */
+    public <T> List<T> searchList(String sql, long key, Class<T> clazz) throws Exception {
+        PreparedStatement pst = acquireStatement(sql);
+        try {
+            pst.setLong(1, key);
+            try (ResultSet rs = pst.executeQuery()) {
+                return DaoUtil.getJavaBeanListFromResultSet(rs, clazz);
+            }
+        } finally {
+            releaseStatement(pst);
+        }
+    }
+
+    /**
+     * 执行查询语句，每读取一行组织成Java对象，交给回调处理
+     * @see DaoUtil#searchEach
+     */
+    public <T> void searchEach(String sql, List<String> paramList, Class<T> clazz, int fetchSize, RowCallback<T> callback) throws Exception {
+        searchEachTyped(sql, SqlParams.ofStrings(paramList), clazz, fetchSize, callback);
+    }
+
+    /**
+     * 参数按各自的类型设置
+     * @see #searchEach(String, List, Class, int, RowCallback)
+     */
+    public <T> void searchEachTyped(String sql, SqlParams params, Class<T> clazz, int fetchSize, RowCallback<T> callback) throws Exception {
+        PreparedStatement pst = acquireStatement(sql);
+        try {
+            pst.setFetchSize(fetchSize > 0 ? fetchSize : 0);
+            DaoUtil.setParams(pst, params);
+            try (ResultSet rs = pst.executeQuery()) {
+                RowMapper<T> rowMapper = RowMapper.getRowMapper(rs, clazz);
+                while (rs.next()) {
+                    callback.accept(rowMapper.mapRow(rs));
+                }
+            }
+        } finally {
+            releaseStatement(pst);
+        }
+    }
+
+    /**
+     * 批量执行插入、更新、删除语句
+     * 分批方式同 {@link DaoUtil#batchUpdate(String, List, int, Connection)}，但每批执行完不提交，
+     * 与会话中的其他操作一起由 {@link DaoUtil#withConnection} 提交或回滚。
+     */
+    public List<int[]> batchUpdate(String sql, List<Object[]> paramArrayList, int batchSize) throws Exception {
+        if (paramArrayList == null || paramArrayList.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        return executeBatch(sql, paramArrayList, batchSize);
+    }
+
+    /**
+     * 批量执行插入、更新、删除语句，参数取自Java对象的属性，不提交事务
+     * @see DaoUtil#batchUpdate(String, List, String[], int, Connection)
+     */
+    public <T> List<int[]> batchUpdate(String sql, List<T> beanList, String[] fieldNames, int batchSize) throws Exception {
+        if (beanList == null || beanList.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        return executeBatch(sql, DaoUtil.getParamArrayList(beanList, fieldNames), batchSize);
+    }
+
+    private List<int[]> executeBatch(String sql, List<Object[]> paramArrayList, int batchSize) throws Exception {
+        PreparedStatement pst = acquireStatement(sql);
+        try {
+            return DaoUtil.executeBatch(pst, paramArrayList, batchSize);
+        } finally {
+            releaseStatement(pst);
+        }
+    }
+
+    /**
+     * 获取预编译语句，优先从缓存中获取
+     * 从缓存中获取的语句会清空上次设置的参数。缓存的语句正在读取结果时，另外创建一个不缓存的语句，在会话关闭时关闭。
+     */
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        PreparedStatement pst = statementCache.get(sql);
+        if (pst != null && busyStatements.contains(pst)) {
+            pst = connection.prepareStatement(sql);
+            uncachedStatements.add(pst);
+        } else if (pst == null || pst.isClosed()) {
+            pst = connection.prepareStatement(sql);
+            statementCache.put(sql, pst);
+        } else {
+            pst.clearParameters();
+        }
+        return pst;
+    }
+
+    /**
+     * 获取语句并标记为正忙，用完后调用 {@link #releaseStatement}
+     */
+    private PreparedStatement acquireStatement(String sql) throws SQLException {
+        PreparedStatement pst = prepareStatement(sql);
+        busyStatements.add(pst);
+        return pst;
+    }
+
+    /**
+     * 取消正忙标记，不在缓存中的语句随即关闭
+     */
+    private void releaseStatement(PreparedStatement pst) {
+        busyStatements.remove(pst);
+        if (uncachedStatements.remove(pst)) {
+            closeStatement(pst);
+        }
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * 关闭缓存的语句和不缓存的语句，不关闭连接
+     */
+    @Override
+    public void close() {
+        Iterator<PreparedStatement> iterator = statementCache.values().iterator();
+        while (iterator.hasNext()) {
+            closeStatement(iterator.next());
+            iterator.remove();
+        }
+        for (PreparedStatement pst : uncachedStatements) {
+            closeStatement(pst);
+        }
+        uncachedStatements.clear();
+        busyStatements.clear();
+    }
+
+    private static void closeStatement(PreparedStatement pst) {
+        try {
+            pst.close();
+        } catch (SQLException ignored) {
+            // 语句只是不再复用，关闭失败不影响后续操作
+        }
+    }
+}
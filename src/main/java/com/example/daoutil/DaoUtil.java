@@ -1,17 +1,16 @@
 package com.example.daoutil;
 
-import java.lang.reflect.Field;
+import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 数据库工具类
@@ -27,15 +26,19 @@ public class DaoUtil {
      * @see #getJavaBeanFromResultSet
      */
     public static <T> T search(String sql, List<String> paramList, Class<T> clazz, Connection connection) throws Exception {
+        return searchTyped(sql, SqlParams.ofStrings(paramList), clazz, connection);
+    }
+
+    /**
+     * 执行查询语句，返回Java对象，参数按各自的类型设置
+     * @see #search(String, List, Class, Connection)
+     */
+    public static <T> T searchTyped(String sql, SqlParams params, Class<T> clazz, Connection connection) throws Exception {
         PreparedStatement pst = null;
         ResultSet rs = null;
         try {
             pst = connection.prepareStatement(sql);
-            if (paramList != null && !paramList.isEmpty()) {
-                for (int i = 0; i < paramList.size(); i++) {
-                    pst.setString(i+1, paramList.get(i));
-                }
-            }
+            setParams(pst, params);
             rs = pst.executeQuery();
             T obj = getJavaBeanFromResultSet(rs, clazz);
             connection.commit();
@@ -59,15 +62,19 @@ public class DaoUtil {
      * @see #getJavaBeanFromResultSet
      */
     public static <T> List<T> searchList(String sql, List<String> paramList, Class<T> clazz, Connection connection) throws Exception {
+        return searchListTyped(sql, SqlParams.ofStrings(paramList), clazz, connection);
+    }
+
+    /**
+     * 执行查询语句，返回Java对象集合，参数按各自的类型设置
+     * @see #searchList(String, List, Class, Connection)
+     */
+    public static <T> List<T> searchListTyped(String sql, SqlParams params, Class<T> clazz, Connection connection) throws Exception {
         PreparedStatement pst = null;
         ResultSet rs = null;
         try {
             pst = connection.prepareStatement(sql);
-            if (paramList != null && paramList.size() > 0) {
-                for (int i = 0; i < paramList.size(); i++) {
-                    pst.setString(i+1, paramList.get(i));
-                }
-            }
+            setParams(pst, params);
             rs = pst.executeQuery();
             List<T> objList = getJavaBeanListFromResultSet(rs, clazz);
             connection.commit();
@@ -86,131 +93,369 @@ public class DaoUtil {
     }
 
     /**
-     * 将数据库查询结果，组织成一个对象
-     * 说明：
-     * （1）公有无参构造函数：对象要有公有无参构造函数。
-     * （2）下划线转驼峰：数据库字段是下划线，对象属性是驼峰，两者对应则设置值，比如 USER_NAME 对应 userName。属性没有对应的字段，则不设置值。
-     * （3）支持字符串、整数、浮点数。其他类型不保证正常注入。
-     * （4）属性爆破注入：本方法可以向私有属性注入值，不需要 set 方法。原理反射爆破。
+     * 按单个整数主键查询，返回Java对象
+     * 主键直接使用 setLong 设置，不创建 SqlParams。
+     * @see #search(String, List, Class, Connection)
      */
-    public static <T> T getJavaBeanFromResultSet(ResultSet rs, Class<T> clazz) throws Exception {
-        if (rs == null || clazz == null) {
-            return null;
+    public static <T> T search(String sql, long key, Class<T> clazz, Connection connection) throws Exception {
+        PreparedStatement pst = null;
+        ResultSet rs = null;
+        try {
+            pst = connection.prepareStatement(sql);
+            pst.setLong(1, key);
+            rs = pst.executeQuery();
+            T obj = getJavaBeanFromResultSet(rs, clazz);
+            connection.commit();
+            return obj;
+        } finally {
+            if (rs != null) {
+                rs.close();
+            }
+            if (pst != null) {
+                pst.close();
+            }
+            if (connection != null) {
+                connection.close();
+            }
         }
-        Map<String, Field> fieldNameAndFieldMap = getFiledNameAndFieldMap(clazz);
-        Map<String, Integer> fieldNameAndColumnIndexMap = getFieldNameAndColumnIndexMap(rs);
-        if (rs.next()) {
-            T obj = clazz.newInstance();
-            for (String fieldName : fieldNameAndColumnIndexMap.keySet()) {
-                if (fieldNameAndFieldMap.containsKey(fieldName)) {
-                    Field field = fieldNameAndFieldMap.get(fieldName);
-                    Integer columnIndex = fieldNameAndColumnIndexMap.get(fieldName);
-                    setFieldValue(field, obj, rs, columnIndex);
+    }
+
+    /**
+     * 按单个整数主键查询，返回Java对象集合，主键使用 setLong 设置
+     * @see #searchList(String, List, Class, Connection)
+     */
+    public static <T> List<T> searchList(String sql, long key, Class<T> clazz, Connection connection) throws Exception {
+        PreparedStatement pst = null;
+        ResultSet rs = null;
+        try {
+            pst = connection.prepareStatement(sql);
+            pst.setLong(1, key);
+            rs = pst.executeQuery();
+            List<T> objList = getJavaBeanListFromResultSet(rs, clazz);
+            connection.commit();
+            return objList;
+        } finally {
+            if (rs != null) {
+                rs.close();
+            }
+            if (pst != null) {
+                pst.close();
+            }
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * 从连接池获取一个连接，在该连接上执行一组操作
+     * 操作全部成功后提交事务，任一操作失败则回滚。执行完毕后关闭缓存的语句，并调用 close 将连接归还连接池。
+     * 会话的使用方式见
+     * @see DaoSession
+     */
+    public static <R> R withConnection(DataSource dataSource, DaoCallback<R> callback) throws Exception {
+        return withConnection(dataSource, DaoSession.DEFAULT_STATEMENT_CACHE_SIZE, callback);
+    }
+
+    /**
+     * 从连接池获取一个连接，在该连接上执行一组操作
+     * @see #withConnection(DataSource, DaoCallback)
+     *
+     * @param statementCacheSize 会话中缓存的语句数量上限
+     */
+    public static <R> R withConnection(DataSource dataSource, int statementCacheSize, DaoCallback<R> callback) throws Exception {
+        Connection connection = dataSource.getConnection();
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
+            try {
+                return withConnection(connection, statementCacheSize, callback);
+            } finally {
+                if (autoCommit) {
+                    connection.setAutoCommit(true);
                 }
             }
-            return obj;
+        } finally {
+            connection.close();
         }
-        return null;
     }
 
     /**
-     * 将数据库查询结果，组织成对象集合
-     * 方法使用说明如下
+     * 在调用方提供的连接上执行一组操作
+     * 操作全部成功后提交事务，任一操作失败则回滚。执行完毕后关闭缓存的语句，不关闭连接。
+     *
+     * @param statementCacheSize 会话中缓存的语句数量上限
+     */
+    public static <R> R withConnection(Connection connection, int statementCacheSize, DaoCallback<R> callback) throws Exception {
+        try (DaoSession session = new DaoSession(connection, statementCacheSize)) {
+            R result = callback.execute(session);
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+            return result;
+        } catch (Exception e) {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 执行查询语句，返回逐行组织Java对象的流
+     * 查询结果不会一次性读入内存，每消费一个对象才读取一行。流读取完毕或关闭时，提交事务并关闭结果集、语句和连接，
+     * 因此调用方要读完整个流，或者用 try-with-resources 关闭流。
+     * Java对象要求如下
      * @see #getJavaBeanFromResultSet
+     *
+     * @param fetchSize 每次从数据库获取的行数，小于等于0时使用驱动的默认值
      */
-    public static <T> List<T> getJavaBeanListFromResultSet(ResultSet rs, Class<T> clazz) throws Exception {
-        if (rs== null || clazz == null) {
-            return null;
+    public static <T> Stream<T> searchStream(String sql, List<String> paramList, Class<T> clazz, Connection connection, int fetchSize) throws Exception {
+        return searchStreamTyped(sql, SqlParams.ofStrings(paramList), clazz, connection, fetchSize);
+    }
+
+    /**
+     * 执行查询语句，返回逐行组织Java对象的流，参数按各自的类型设置
+     * @see #searchStream(String, List, Class, Connection, int)
+     */
+    public static <T> Stream<T> searchStreamTyped(String sql, SqlParams params, Class<T> clazz, Connection connection, int fetchSize) throws Exception {
+        ResultSetIterator<T> iterator = searchIteratorTyped(sql, params, clazz, connection, fetchSize);
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                iterator.close();
+            } catch (SQLException e) {
+                throw new IllegalStateException("关闭查询结果失败：" + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * 执行查询语句，返回逐行组织Java对象的迭代器
+     * 迭代完毕或调用 close 时，提交事务并关闭结果集、语句和连接。
+     * @see #searchStream
+     */
+    public static <T> ResultSetIterator<T> searchIterator(String sql, List<String> paramList, Class<T> clazz, Connection connection, int fetchSize) throws Exception {
+        return searchIteratorTyped(sql, SqlParams.ofStrings(paramList), clazz, connection, fetchSize);
+    }
+
+    /**
+     * 执行查询语句，返回逐行组织Java对象的迭代器，参数按各自的类型设置
+     * @see #searchIterator(String, List, Class, Connection, int)
+     */
+    public static <T> ResultSetIterator<T> searchIteratorTyped(String sql, SqlParams params, Class<T> clazz, Connection connection, int fetchSize) throws Exception {
+        PreparedStatement pst = null;
+        ResultSet rs = null;
+        try {
+            pst = connection.prepareStatement(sql);
+            if (fetchSize > 0) {
+                pst.setFetchSize(fetchSize);
+            }
+            setParams(pst, params);
+            rs = pst.executeQuery();
+            return new ResultSetIterator<>(rs, pst, connection, RowMapper.getRowMapper(rs, clazz));
+        } catch (Exception e) {
+            if (rs != null) {
+                rs.close();
+            }
+            if (pst != null) {
+                pst.close();
+            }
+            connection.close();
+            throw e;
         }
-        Map<String, Field> fieldNameAndFieldMap = getFiledNameAndFieldMap(clazz);
-        Map<String, Integer> fieldNameAndColumnIndexMap = getFieldNameAndColumnIndexMap(rs);
-        List<T> objList = new ArrayList<>();
-        while (rs.next()) {
-            T obj = clazz.newInstance();
-            for (String fieldName : fieldNameAndColumnIndexMap.keySet()) {
-                if (fieldNameAndFieldMap.containsKey(fieldName)) {
-                    Field field = fieldNameAndFieldMap.get(fieldName);
-                    Integer columnIndex = fieldNameAndColumnIndexMap.get(fieldName);
-                    setFieldValue(field, obj, rs, columnIndex);
-                }
+    }
+
+    /**
+     * 执行查询语句，每读取一行组织成Java对象，交给回调处理
+     * 查询结果不会一次性读入内存。执行完毕后提交事务并关闭结果集、语句和连接。
+     * Java对象要求如下
+     * @see #getJavaBeanFromResultSet
+     *
+     * @param fetchSize 每次从数据库获取的行数，小于等于0时使用驱动的默认值
+     */
+    public static <T> void searchEach(String sql, List<String> paramList, Class<T> clazz, Connection connection, int fetchSize, RowCallback<T> callback) throws Exception {
+        searchEachTyped(sql, SqlParams.ofStrings(paramList), clazz, connection, fetchSize, callback);
+    }
+
+    /**
+     * 执行查询语句，每读取一行组织成Java对象，交给回调处理，参数按各自的类型设置
+     * @see #searchEach(String, List, Class, Connection, int, RowCallback)
+     */
+    public static <T> void searchEachTyped(String sql, SqlParams params, Class<T> clazz, Connection connection, int fetchSize, RowCallback<T> callback) throws Exception {
+        try (ResultSetIterator<T> iterator = searchIteratorTyped(sql, params, clazz, connection, fetchSize)) {
+            while (iterator.hasNext()) {
+                callback.accept(iterator.next());
             }
-            objList.add(obj);
         }
-        return objList;
     }
 
     /**
-     * 将数据库字段名，转为java对象属性名
-     * 将下划线形式的字段名，转为驼峰形式的属性名。比如 USER_ID 转为 userId
+     * 批量执行插入、更新、删除语句
+     * 每 batchSize 条参数为一批，使用 addBatch/executeBatch 一次提交到数据库，每批执行完提交一次事务。
+     * 某一批执行失败时，回滚该批，之前已提交的批次不回滚。执行完毕后关闭语句和连接。
      *
-     * @return 驼峰形式的属性名，比如 userId
+     * @param paramArrayList 每个元素是一条语句的参数，按顺序对应 sql 中的问号
+     * @param batchSize 每批的条数，小于等于0时全部作为一批
+     * @return 每批的执行结果，即每批 executeBatch 返回的影响行数
      */
-    private static String getFieldNameFromColumnName(String columnName) {
-        if (columnName == null || columnName.length() == 0) {
-            return "";
+    public static List<int[]> batchUpdate(String sql, List<Object[]> paramArrayList, int batchSize, Connection connection) throws Exception {
+        if (paramArrayList == null || paramArrayList.isEmpty()) {
+            connection.close();
+            return new ArrayList<>(0);
         }
-        char[] charArray = columnName.toLowerCase().toCharArray();
-        StringBuilder fieldName = new StringBuilder();
-        boolean isUp = false;
-        for (char ch : charArray){
-            if (ch == '_') {
-                isUp = true;
-                continue;
+        PreparedStatement pst = null;
+        try {
+            pst = connection.prepareStatement(sql);
+            return executeBatchAndCommit(pst, paramArrayList, batchSize, connection);
+        } finally {
+            if (pst != null) {
+                pst.close();
             }
-            if (isUp) {
-                fieldName.append(Character.toUpperCase(ch));
-                isUp = false;
-            } else {
-                fieldName.append(ch);
+            connection.close();
+        }
+    }
+
+    /**
+     * 批量执行插入、更新、删除语句，参数取自Java对象的属性
+     * 分批、提交、关闭连接的方式见
+     * @see #batchUpdate(String, List, int, Connection)
+     *
+     * @param beanList 每个元素对应一条语句
+     * @param fieldNames 属性名称，按顺序对应 sql 中的问号。可以是父类的属性，私有属性也能读取。
+     * @return 每批的执行结果，即每批 executeBatch 返回的影响行数
+     */
+    public static <T> List<int[]> batchUpdate(String sql, List<T> beanList, String[] fieldNames, int batchSize, Connection connection) throws Exception {
+        if (beanList == null || beanList.isEmpty()) {
+            return batchUpdate(sql, new ArrayList<Object[]>(0), batchSize, connection);
+        }
+        return batchUpdate(sql, getParamArrayList(beanList, fieldNames), batchSize, connection);
+    }
+
+    /**
+     * 分批执行语句，每批执行完提交一次事务，某一批执行失败时回滚该批
+     * 不关闭语句和连接
+     *
+     * @return 每批 executeBatch 返回的影响行数
+     */
+    static List<int[]> executeBatchAndCommit(PreparedStatement pst, List<Object[]> paramArrayList, int batchSize, Connection connection) throws SQLException {
+        List<int[]> updateCountList = new ArrayList<>();
+        int size = paramArrayList.size();
+        int chunkSize = batchSize > 0 ? batchSize : size;
+        for (int start = 0; start < size; start += chunkSize) {
+            try {
+                updateCountList.add(executeChunk(pst, paramArrayList, start, Math.min(start + chunkSize, size)));
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
             }
         }
-        return fieldName.toString();
+        return updateCountList;
     }
 
     /**
-     * 获取类的属性
-     * 已反射爆破，可以设置私有属性
+     * 分批执行语句，不提交、不回滚事务，由调用方统一提交或回滚
+     * 会话中使用，不关闭语句和连接
      *
-     * @return 键是属性名称，值是反射的属性对象
+     * @return 每批 executeBatch 返回的影响行数
+     */
+    static List<int[]> executeBatch(PreparedStatement pst, List<Object[]> paramArrayList, int batchSize) throws SQLException {
+        List<int[]> updateCountList = new ArrayList<>();
+        int size = paramArrayList.size();
+        int chunkSize = batchSize > 0 ? batchSize : size;
+        for (int start = 0; start < size; start += chunkSize) {
+            updateCountList.add(executeChunk(pst, paramArrayList, start, Math.min(start + chunkSize, size)));
+        }
+        return updateCountList;
+    }
+
+    /**
+     * 执行一批语句，失败时清空该批的参数
+     */
+    private static int[] executeChunk(PreparedStatement pst, List<Object[]> paramArrayList, int start, int end) throws SQLException {
+        try {
+            for (int i = start; i < end; i++) {
+                Object[] paramArray = paramArrayList.get(i);
+                for (int j = 0; j < paramArray.length; j++) {
+                    SqlParams.bind(pst, j + 1, paramArray[j]);
+                }
+                pst.addBatch();
+            }
+            return pst.executeBatch();
+        } catch (SQLException e) {
+            pst.clearBatch();
+            throw e;
+        }
+    }
+
+    /**
+     * 将Java对象的属性组织成批量执行的参数
+     * 属性按每个对象的实际类型查找，列表中可以有不同的子类；取值句柄按类型和属性名缓存，类型与上一个对象相同时直接使用。
+     */
+    static <T> List<Object[]> getParamArrayList(List<T> beanList, String[] fieldNames) throws Exception {
+        List<Object[]> paramArrayList = new ArrayList<>(beanList.size());
+        Class<?> readerClass = null;
+        ParamReader paramReader = null;
+        for (int i = 0; i < beanList.size(); i++) {
+            T bean = beanList.get(i);
+            if (bean == null) {
+                throw new Exception("批量执行的参数列表中第 " + i + " 个对象为空");
+            }
+            if (bean.getClass() != readerClass) {
+                readerClass = bean.getClass();
+                paramReader = ParamReader.getParamReader(readerClass, fieldNames);
+            }
+            paramArrayList.add(paramReader.read(bean));
+        }
+        return paramArrayList;
+    }
+
+    /**
+     * 设置查询参数
      */
-    private static <T> Map<String, Field> getFiledNameAndFieldMap(Class<T> clazz) {
-        Field[] fieldArray = clazz.getDeclaredFields();
-        // 反射爆破，可以设置私有值
-        for (Field f : fieldArray) {
-            f.setAccessible(true);
+    static void setParams(PreparedStatement pst, SqlParams params) throws SQLException {
+        if (params != null) {
+            params.bind(pst);
         }
-        return Arrays.stream(fieldArray).collect(Collectors.toMap(Field::getName, f -> f));
     }
 
-    private static Map<String, Integer> getFieldNameAndColumnIndexMap(ResultSet rs) throws SQLException {
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnCount = metaData.getColumnCount();
-        Map<String, Integer> map = new HashMap<>(columnCount);
-        // ResultSet 字段的序号，是从1开始的
-        for (int i = 1; i <= columnCount; i++) {
-            String columnName = metaData.getColumnName(i);
-            String fieldName = getFieldNameFromColumnName(columnName);
-            map.put(fieldName, i);
+    /**
+     * 将数据库查询结果，组织成一个对象
+     * 说明：
+     * （1）公有无参构造函数：对象要有公有无参构造函数。
+     * （2）下划线转驼峰：数据库字段是下划线，对象属性是驼峰，两者对应则设置值，比如 USER_NAME 对应 userName。属性没有对应的字段，则不设置值。
+     * （3）支持字符串、整数、浮点数。其他类型不保证正常注入。
+     * （4）属性爆破注入：本方法可以向私有属性注入值，不需要 set 方法。原理反射爆破。
+     * （5）映射缓存：同一类型、同一组查询字段的映射关系只解析一次，之后复用。
+     */
+    public static <T> T getJavaBeanFromResultSet(ResultSet rs, Class<T> clazz) throws Exception {
+        if (rs == null || clazz == null) {
+            return null;
+        }
+        RowMapper<T> rowMapper = RowMapper.getRowMapper(rs, clazz);
+        if (rs.next()) {
+            return rowMapper.mapRow(rs);
         }
-        return map;
+        return null;
     }
 
     /**
-     * 设置属性值
-     * 支持字符串、整数、浮点数
+     * 将数据库查询结果，组织成对象集合
+     * 方法使用说明如下
+     * @see #getJavaBeanFromResultSet
      */
-    private static <T> void setFieldValue(Field field, T obj, ResultSet rs, Integer columnIndex) throws SQLException, IllegalAccessException {
-        Class<?> typeClass = field.getType();
-        if (typeClass.isAssignableFrom(String.class)) {
-            field.set(obj, rs.getString(columnIndex));
-        } else if(typeClass.isAssignableFrom(int.class) || typeClass.isAssignableFrom(Integer.class)){
-            field.set(obj, rs.getInt(columnIndex));
-        } else if(typeClass.isAssignableFrom(float.class) || typeClass.isAssignableFrom(Float.class)){
-            field.set(obj, rs.getFloat(columnIndex));
-        } else if (typeClass.isAssignableFrom(double.class) || typeClass.isAssignableFrom(Double.class)) {
-            field.set(obj, rs.getDouble(columnIndex));
-        } else {
-            field.set(obj, rs.getObject(columnIndex));
+    public static <T> List<T> getJavaBeanListFromResultSet(ResultSet rs, Class<T> clazz) throws Exception {
+        if (rs== null || clazz == null) {
+            return null;
+        }
+        RowMapper<T> rowMapper = RowMapper.getRowMapper(rs, clazz);
+        List<T> objList = new ArrayList<>();
+        while (rs.next()) {
+            objList.add(rowMapper.mapRow(rs));
         }
+        return objList;
     }
 }
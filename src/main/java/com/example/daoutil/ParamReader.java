@@ -0,0 +1,96 @@
+package com.example.daoutil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 预编译的参数读取器，按属性名读取Java对象的属性值，组织成一条语句的参数
+ *
+ * 按（对象类型，属性名）缓存：首次遇到某个类型和某组属性名时，查找属性并生成取值句柄。之后每个对象只按顺序调用句柄取值，
+ * 不再反射查找属性和调用 Field.get。属性先在当前类中查找，找不到再到父类中查找。
+ */
+class ParamReader {
+
+    /**
+     * 缓存参数读取器
+     * 外层key是对象类型；内层key是属性名签名，即按顺序以逗号拼接的属性名；value是对应的参数读取器
+     */
+    private static final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, ParamReader>> paramReaderCache = new ConcurrentHashMap<>();
+
+    /**
+     * 类型为 (Object)Object 的取值句柄，顺序与属性名一致
+     */
+    private final MethodHandle[] getters;
+
+    private ParamReader(MethodHandle[] getters) {
+        this.getters = getters;
+    }
+
+    /**
+     * 获取参数读取器，同一类型、同一组属性名的读取器只创建一次
+     */
+    static ParamReader getParamReader(Class<?> clazz, String[] fieldNames) throws Exception {
+        ConcurrentHashMap<String, ParamReader> readerMap = paramReaderCache.get(clazz);
+        if (readerMap == null) {
+            readerMap = new ConcurrentHashMap<>();
+            ConcurrentHashMap<String, ParamReader> old = paramReaderCache.putIfAbsent(clazz, readerMap);
+            if (old != null) {
+                readerMap = old;
+            }
+        }
+        String key = String.join(",", fieldNames);
+        ParamReader paramReader = readerMap.get(key);
+        if (paramReader == null) {
+            paramReader = create(clazz, fieldNames);
+            ParamReader old = readerMap.putIfAbsent(key, paramReader);
+            if (old != null) {
+                paramReader = old;
+            }
+        }
+        return paramReader;
+    }
+
+    /**
+     * 读取对象的属性值，顺序与属性名一致
+     */
+    Object[] read(Object bean) throws Exception {
+        Object[] paramArray = new Object[getters.length];
+        try {
+            for (int i = 0; i < getters.length; i++) {
+                paramArray[i] = (Object) getters[i].invokeExact(bean);
+            }
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new Exception(t);
+        }
+        return paramArray;
+    }
+
+    private static ParamReader create(Class<?> clazz, String[] fieldNames) throws Exception {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle[] getters = new MethodHandle[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            getters[i] = lookup.unreflectGetter(getField(clazz, fieldNames[i]))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        }
+        return new ParamReader(getters);
+    }
+
+    private static Field getField(Class<?> clazz, String fieldName) throws NoSuchFieldException {
+        Class<?> currentClass = clazz;
+        while (currentClass != null && currentClass != Object.class) {
+            try {
+                Field field = currentClass.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException e) {
+                currentClass = currentClass.getSuperclass();
+            }
+        }
+        throw new NoSuchFieldException("类 " + clazz.getName() + " 中属性 " + fieldName + " 不存在");
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.daoutil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 逐行读取查询结果的迭代器
+ * 每次只读取并组织一行，不缓存已读取的行。读取完毕或调用 close 后，提交事务并关闭结果集、语句和连接。
+ *
+ * @see DaoUtil#searchStream
+ */
+public class ResultSetIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private final ResultSet rs;
+    private final PreparedStatement pst;
+    private final Connection connection;
+    private final RowMapper<T> rowMapper;
+    /**
+     * 是否已调用 rs.next() 且尚未取出该行
+     */
+    private boolean hasFetched = false;
+    /**
+     * 当前行是否存在
+     */
+    private boolean hasRow = false;
+    private boolean isClosed = false;
+
+    ResultSetIterator(ResultSet rs, PreparedStatement pst, Connection connection, RowMapper<T> rowMapper) {
+        this.rs = rs;
+        this.pst = pst;
+        this.connection = connection;
+        this.rowMapper = rowMapper;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (isClosed) {
+            return false;
+        }
+        if (!hasFetched) {
+            try {
+                hasRow = rs.next();
+                hasFetched = true;
+                if (!hasRow) {
+                    close();
+                }
+            } catch (SQLException e) {
+                closeQuietly();
+                throw new IllegalStateException("读取查询结果失败：" + e.getMessage(), e);
+            }
+        }
+        return hasRow;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        hasFetched = false;
+        try {
+            return rowMapper.mapRow(rs);
+        } catch (Exception e) {
+            closeQuietly();
+            throw new IllegalStateException("组织查询结果失败：" + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 提交事务，关闭结果集、语句和连接
+     * 重复调用不会重复关闭。
+     */
+    @Override
+    public void close() throws SQLException {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        try {
+            connection.commit();
+        } finally {
+            try {
+                rs.close();
+            } finally {
+                try {
+                    pst.close();
+                } finally {
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (SQLException ignored) {
+            // 读取已失败，以读取时的异常为准
+        }
+    }
+}
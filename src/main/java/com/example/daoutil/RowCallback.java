@@ -0,0 +1,14 @@
+package com.example.daoutil;
+
+/**
+ * 逐行回调，每读取一行调用一次
+ *
+ * @see DaoUtil#searchEach
+ */
+public interface RowCallback<T> {
+
+    /**
+     * 处理一行数据组织成的对象
+     */
+    void accept(T obj) throws Exception;
+}
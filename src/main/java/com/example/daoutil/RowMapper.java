@@ -0,0 +1,309 @@
+package com.example.daoutil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 预编译的行映射器，将数据库查询结果的一行组织成一个对象
+ *
+ * 按（对象类型，查询字段）缓存：首次遇到某个类型和某组查询字段时，解析字段与属性的对应关系，
+ * 为每个字段确定读取方法（getString、getInt 等）和属性赋值句柄。之后每一行只按字段顺序读取并赋值。
+ *
+ * 映射规则见 {@link DaoUtil#getJavaBeanFromResultSet}
+ */
+public class RowMapper<T> {
+
+    /**
+     * 缓存行映射器
+     * 外层key是对象类型；内层key是查询字段签名，即按顺序以逗号拼接的字段名；value是对应的行映射器
+     */
+    private static final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, RowMapper<?>>> rowMapperCache = new ConcurrentHashMap<>();
+
+    /**
+     * 类型为 ()Object 的无参构造器句柄
+     */
+    private final MethodHandle constructor;
+    /**
+     * 字段赋值器，只包含有对应属性的字段
+     */
+    private final ColumnSetter[] columnSetters;
+
+    private RowMapper(MethodHandle constructor, ColumnSetter[] columnSetters) {
+        this.constructor = constructor;
+        this.columnSetters = columnSetters;
+    }
+
+    /**
+     * 根据查询结果的字段获取行映射器
+     * 同一类型、同一组字段的行映射器只创建一次。
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowMapper<T> getRowMapper(ResultSet rs, Class<T> clazz) throws Exception {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        // ResultSet 字段的序号，是从1开始的
+        String[] columnNames = new String[columnCount + 1];
+        StringBuilder signature = new StringBuilder();
+        for (int i = 1; i <= columnCount; i++) {
+            columnNames[i] = metaData.getColumnName(i);
+            signature.append(columnNames[i]).append(',');
+        }
+        ConcurrentHashMap<String, RowMapper<?>> mapperMap = rowMapperCache.get(clazz);
+        if (mapperMap == null) {
+            mapperMap = new ConcurrentHashMap<>();
+            ConcurrentHashMap<String, RowMapper<?>> old = rowMapperCache.putIfAbsent(clazz, mapperMap);
+            if (old != null) {
+                mapperMap = old;
+            }
+        }
+        String key = signature.toString();
+        RowMapper<T> rowMapper = (RowMapper<T>) mapperMap.get(key);
+        if (rowMapper == null) {
+            rowMapper = create(clazz, columnNames);
+            RowMapper<T> old = (RowMapper<T>) mapperMap.putIfAbsent(key, rowMapper);
+            if (old != null) {
+                rowMapper = old;
+            }
+        }
+        return rowMapper;
+    }
+
+    /**
+     * 将当前行组织成一个对象
+     */
+    @SuppressWarnings("unchecked")
+    public T mapRow(ResultSet rs) throws Exception {
+        try {
+            T obj = (T) (Object) constructor.invokeExact();
+            for (ColumnSetter columnSetter : columnSetters) {
+                columnSetter.set(obj, rs);
+            }
+            return obj;
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new Exception(t);
+        }
+    }
+
+    private static <T> RowMapper<T> create(Class<T> clazz, String[] columnNames) throws Exception {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Constructor<T> c = clazz.getDeclaredConstructor();
+        c.setAccessible(true);
+        MethodHandle constructor = lookup.unreflectConstructor(c).asType(MethodType.methodType(Object.class));
+
+        Map<String, Field> fieldNameAndFieldMap = getFiledNameAndFieldMap(clazz);
+        Map<String, Integer> fieldNameAndColumnIndexMap = new HashMap<>(columnNames.length);
+        for (int i = 1; i < columnNames.length; i++) {
+            fieldNameAndColumnIndexMap.put(getFieldNameFromColumnName(columnNames[i]), i);
+        }
+        List<ColumnSetter> columnSetters = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : fieldNameAndColumnIndexMap.entrySet()) {
+            Field field = fieldNameAndFieldMap.get(entry.getKey());
+            if (field != null) {
+                columnSetters.add(ColumnSetter.create(field, lookup.unreflectSetter(field), entry.getValue()));
+            }
+        }
+        return new RowMapper<>(constructor, columnSetters.toArray(new ColumnSetter[0]));
+    }
+
+    /**
+     * 将数据库字段名，转为java对象属性名
+     * 将下划线形式的字段名，转为驼峰形式的属性名。比如 USER_ID 转为 userId
+     *
+     * @return 驼峰形式的属性名，比如 userId
+     */
+    private static String getFieldNameFromColumnName(String columnName) {
+        if (columnName == null || columnName.length() == 0) {
+            return "";
+        }
+        char[] charArray = columnName.toLowerCase().toCharArray();
+        StringBuilder fieldName = new StringBuilder();
+        boolean isUp = false;
+        for (char ch : charArray){
+            if (ch == '_') {
+                isUp = true;
+                continue;
+            }
+            if (isUp) {
+                fieldName.append(Character.toUpperCase(ch));
+                isUp = false;
+            } else {
+                fieldName.append(ch);
+            }
+        }
+        return fieldName.toString();
+    }
+
+    /**
+     * 获取类的属性
+     * 已反射爆破，可以设置私有属性。静态属性和 final 属性不设置。
+     *
+     * @return 键是属性名称，值是反射的属性对象
+     */
+    private static <T> Map<String, Field> getFiledNameAndFieldMap(Class<T> clazz) {
+        Field[] fieldArray = clazz.getDeclaredFields();
+        Map<String, Field> map = new HashMap<>(fieldArray.length);
+        for (Field f : fieldArray) {
+            int modifiers = f.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+                continue;
+            }
+            // 反射爆破，可以设置私有值
+            f.setAccessible(true);
+            map.put(f.getName(), f);
+        }
+        return map;
+    }
+
+    /**
+     * 字段赋值器
+     * 创建时根据属性类型确定读取方法，支持字符串、整数、浮点数，其他类型使用 getObject。
+     */
+    private abstract static class ColumnSetter {
+
+        /**
+         * 字段序号，从1开始
+         */
+        final int columnIndex;
+        /**
+         * 赋值句柄，第一个参数类型是 Object，第二个参数类型是基本类型或 Object
+         */
+        final MethodHandle setter;
+
+        ColumnSetter(int columnIndex, MethodHandle setter) {
+            this.columnIndex = columnIndex;
+            this.setter = setter;
+        }
+
+        abstract void set(Object obj, ResultSet rs) throws Throwable;
+
+        static ColumnSetter create(Field field, MethodHandle setter, int columnIndex) {
+            Class<?> typeClass = field.getType();
+            MethodHandle objectSetter = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            if (typeClass.isAssignableFrom(String.class)) {
+                return new StringSetter(columnIndex, objectSetter);
+            } else if (typeClass == int.class) {
+                return new IntSetter(columnIndex, setter.asType(MethodType.methodType(void.class, Object.class, int.class)));
+            } else if (typeClass.isAssignableFrom(Integer.class)) {
+                return new IntegerSetter(columnIndex, objectSetter);
+            } else if (typeClass == float.class) {
+                return new FloatSetter(columnIndex, setter.asType(MethodType.methodType(void.class, Object.class, float.class)));
+            } else if (typeClass.isAssignableFrom(Float.class)) {
+                return new FloatObjectSetter(columnIndex, objectSetter);
+            } else if (typeClass == double.class) {
+                return new DoubleSetter(columnIndex, setter.asType(MethodType.methodType(void.class, Object.class, double.class)));
+            } else if (typeClass.isAssignableFrom(Double.class)) {
+                return new DoubleObjectSetter(columnIndex, objectSetter);
+            }
+            return new ObjectSetter(columnIndex, objectSetter);
+        }
+    }
+
+    private static final class StringSetter extends ColumnSetter {
+
+        StringSetter(int columnIndex, MethodHandle setter) {
+            super(columnIndex, setter);
+        }
+
+        @Override
+        void set(Object obj, ResultSet rs) throws Throwable {
+            setter.invokeExact(obj, (Object) rs.getString(columnIndex));
+        }
+    }
+
+    private static final class IntSetter extends ColumnSetter {
+
+        IntSetter(int columnIndex, MethodHandle setter) {
+            super(columnIndex, setter);
+        }
+
+        @Override
+        void set(Object obj, ResultSet rs) throws Throwable {
+            setter.invokeExact(obj, rs.getInt(columnIndex));
+        }
+    }
+
+    private static final class IntegerSetter extends ColumnSetter {
+
+        IntegerSetter(int columnIndex, MethodHandle setter) {
+            super(columnIndex, setter);
+        }
+
+        @Override
+        void set(Object obj, ResultSet rs) throws Throwable {
+            setter.invokeExact(obj, (Object) Integer.valueOf(rs.getInt(columnIndex)));
+        }
+    }
+
+    private static final class FloatSetter extends ColumnSetter {
+
+        FloatSetter(int columnIndex, MethodHandle setter) {
+            super(columnIndex, setter);
+        }
+
+        @Override
+        void set(Object obj, ResultSet rs) throws Throwable {
+            setter.invokeExact(obj, rs.getFloat(columnIndex));
+        }
+    }
+
+    private static final class FloatObjectSetter extends ColumnSetter {
+
+        FloatObjectSetter(int columnIndex, MethodHandle setter) {
+            super(columnIndex, setter);
+        }
+
+        @Override
+        void set(Object obj, ResultSet rs) throws Throwable {
+            setter.invokeExact(obj, (Object) Float.valueOf(rs.getFloat(columnIndex)));
+        }
+    }
+
+    private static final class DoubleSetter extends ColumnSetter {
+
+        DoubleSetter(int columnIndex, MethodHandle setter) {
+            super(columnIndex, setter);
+        }
+
+        @Override
+        void set(Object obj, ResultSet rs) throws Throwable {
+            setter.invokeExact(obj, rs.getDouble(columnIndex));
+        }
+    }
+
+    private static final class DoubleObjectSetter extends ColumnSetter {
+
+        DoubleObjectSetter(int columnIndex, MethodHandle setter) {
+            super(columnIndex, setter);
+        }
+
+        @Override
+        void set(Object obj, ResultSet rs) throws Throwable {
+            setter.invokeExact(obj, (Object) Double.valueOf(rs.getDouble(columnIndex)));
+        }
+    }
+
+    private static final class ObjectSetter extends ColumnSetter {
+
+        ObjectSetter(int columnIndex, MethodHandle setter) {
+            super(columnIndex, setter);
+        }
+
+        @Override
+        void set(Object obj, ResultSet rs) throws Throwable {
+            setter.invokeExact(obj, rs.getObject(columnIndex));
+        }
+    }
+}
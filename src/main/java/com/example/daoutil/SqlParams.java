@@ -0,0 +1,304 @@
+package com.example.daoutil;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 带类型的sql参数，按添加顺序对应 sql 中的问号
+ *
+ * 参数按各自的类型设置，比如整数使用 setInt、时间使用 setTimestamp，空值使用 setNull 并指定类型，
+ * 数据库不需要做隐式类型转换，数值、日期字段上的索引可以正常使用。
+ * 基本类型的参数保存在 long 数组中，不装箱。对象可以调用 clear 后重复使用，重复使用时不再分配内存。
+ * 对象不是线程安全的。
+ * DaoUtil、DaoSession 中使用本类参数的查询方法以 Typed 结尾，比如 searchTyped，不与 List<String> 参数的方法重载，
+ * 原有调用中参数集合传 null 的写法不受影响。
+ */
+public class SqlParams {
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_INT = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_DOUBLE = 3;
+    private static final byte TYPE_BOOLEAN = 4;
+    private static final byte TYPE_STRING = 5;
+    private static final byte TYPE_BIG_DECIMAL = 6;
+    private static final byte TYPE_TIMESTAMP = 7;
+    private static final byte TYPE_DATE = 8;
+    private static final byte TYPE_TIME = 9;
+    private static final byte TYPE_FLOAT = 10;
+    private static final byte TYPE_OBJECT = 11;
+
+    /**
+     * 参数类型
+     */
+    private byte[] types;
+    /**
+     * 基本类型的参数值，double 按 doubleToRawLongBits 保存，float 按 floatToRawIntBits 保存；参数为空时保存 java.sql.Types 中的类型
+     */
+    private long[] primitiveValues;
+    /**
+     * 对象类型的参数值
+     */
+    private Object[] objectValues;
+    private int size = 0;
+
+    private SqlParams(int capacity) {
+        int c = capacity > 0 ? capacity : 4;
+        this.types = new byte[c];
+        this.primitiveValues = new long[c];
+        this.objectValues = new Object[c];
+    }
+
+    public static SqlParams create() {
+        return new SqlParams(4);
+    }
+
+    /**
+     * @param capacity 预计的参数个数
+     */
+    public static SqlParams create(int capacity) {
+        return new SqlParams(capacity);
+    }
+
+    /**
+     * 根据参数值的类型创建参数
+     * 空值按 VARCHAR 设置，需要指定空值类型时使用 {@link #addNull(int)}
+     */
+    public static SqlParams of(Object... values) {
+        SqlParams params = new SqlParams(values.length);
+        for (Object value : values) {
+            params.add(value);
+        }
+        return params;
+    }
+
+    /**
+     * 将字符串参数集合转为参数，全部按字符串设置
+     */
+    public static SqlParams ofStrings(List<String> paramList) {
+        if (paramList == null || paramList.isEmpty()) {
+            return null;
+        }
+        SqlParams params = new SqlParams(paramList.size());
+        for (String param : paramList) {
+            params.addString(param);
+        }
+        return params;
+    }
+
+    public SqlParams addInt(int value) {
+        return addPrimitive(TYPE_INT, value);
+    }
+
+    public SqlParams addLong(long value) {
+        return addPrimitive(TYPE_LONG, value);
+    }
+
+    public SqlParams addDouble(double value) {
+        return addPrimitive(TYPE_DOUBLE, Double.doubleToRawLongBits(value));
+    }
+
+    public SqlParams addFloat(float value) {
+        return addPrimitive(TYPE_FLOAT, Float.floatToRawIntBits(value));
+    }
+
+    public SqlParams addBoolean(boolean value) {
+        return addPrimitive(TYPE_BOOLEAN, value ? 1 : 0);
+    }
+
+    public SqlParams addString(String value) {
+        return value == null ? addNull(Types.VARCHAR) : addObject(TYPE_STRING, value);
+    }
+
+    public SqlParams addBigDecimal(BigDecimal value) {
+        return value == null ? addNull(Types.NUMERIC) : addObject(TYPE_BIG_DECIMAL, value);
+    }
+
+    public SqlParams addTimestamp(Timestamp value) {
+        return value == null ? addNull(Types.TIMESTAMP) : addObject(TYPE_TIMESTAMP, value);
+    }
+
+    /**
+     * 添加时间参数，按 Timestamp 设置
+     */
+    public SqlParams addTimestamp(java.util.Date value) {
+        if (value == null) {
+            return addNull(Types.TIMESTAMP);
+        }
+        return addObject(TYPE_TIMESTAMP, value instanceof Timestamp ? value : new Timestamp(value.getTime()));
+    }
+
+    public SqlParams addDate(Date value) {
+        return value == null ? addNull(Types.DATE) : addObject(TYPE_DATE, value);
+    }
+
+    public SqlParams addTime(Time value) {
+        return value == null ? addNull(Types.TIME) : addObject(TYPE_TIME, value);
+    }
+
+    /**
+     * 添加空值参数
+     *
+     * @param sqlType java.sql.Types 中的类型
+     */
+    public SqlParams addNull(int sqlType) {
+        return addPrimitive(TYPE_NULL, sqlType);
+    }
+
+    /**
+     * 根据参数值的类型添加参数
+     * Integer、Long、Double、Float、Boolean、String、BigDecimal、java.sql.Date、Time、Timestamp、java.util.Date 按对应类型设置，
+     * 空值按 VARCHAR 设置，其他类型使用 setObject。
+     */
+    public SqlParams add(Object value) {
+        if (value == null) {
+            return addNull(Types.VARCHAR);
+        } else if (value instanceof String) {
+            return addObject(TYPE_STRING, value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return addInt(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            return addLong((Long) value);
+        } else if (value instanceof Double) {
+            return addDouble((Double) value);
+        } else if (value instanceof Float) {
+            return addFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            return addBoolean((Boolean) value);
+        } else if (value instanceof BigDecimal) {
+            return addObject(TYPE_BIG_DECIMAL, value);
+        } else if (value instanceof Date) {
+            return addObject(TYPE_DATE, value);
+        } else if (value instanceof Time) {
+            return addObject(TYPE_TIME, value);
+        } else if (value instanceof java.util.Date) {
+            return addTimestamp((java.util.Date) value);
+        }
+        return addObject(TYPE_OBJECT, value);
+    }
+
+    /**
+     * 清空参数，以便重复使用
+     */
+    public SqlParams clear() {
+        Arrays.fill(objectValues, 0, size, null);
+        size = 0;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 按类型设置全部参数
+     */
+    public void bind(PreparedStatement pst) throws SQLException {
+        for (int i = 0; i < size; i++) {
+            int index = i + 1;
+            long primitiveValue = primitiveValues[i];
+            switch (types[i]) {
+                case TYPE_NULL:
+                    pst.setNull(index, (int) primitiveValue);
+                    break;
+                case TYPE_INT:
+                    pst.setInt(index, (int) primitiveValue);
+                    break;
+                case TYPE_LONG:
+                    pst.setLong(index, primitiveValue);
+                    break;
+                case TYPE_DOUBLE:
+                    pst.setDouble(index, Double.longBitsToDouble(primitiveValue));
+                    break;
+                case TYPE_FLOAT:
+                    pst.setFloat(index, Float.intBitsToFloat((int) primitiveValue));
+                    break;
+                case TYPE_BOOLEAN:
+                    pst.setBoolean(index, primitiveValue != 0);
+                    break;
+                case TYPE_STRING:
+                    pst.setString(index, (String) objectValues[i]);
+                    break;
+                case TYPE_BIG_DECIMAL:
+                    pst.setBigDecimal(index, (BigDecimal) objectValues[i]);
+                    break;
+                case TYPE_TIMESTAMP:
+                    pst.setTimestamp(index, (Timestamp) objectValues[i]);
+                    break;
+                case TYPE_DATE:
+                    pst.setDate(index, (Date) objectValues[i]);
+                    break;
+                case TYPE_TIME:
+                    pst.setTime(index, (Time) objectValues[i]);
+                    break;
+                default:
+                    pst.setObject(index, objectValues[i]);
+            }
+        }
+    }
+
+    /**
+     * 根据参数值的类型设置单个参数，规则同 {@link #add(Object)}
+     */
+    static void bind(PreparedStatement pst, int index, Object value) throws SQLException {
+        if (value == null) {
+            pst.setNull(index, Types.VARCHAR);
+        } else if (value instanceof String) {
+            pst.setString(index, (String) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            pst.setInt(index, ((Number) value).intValue());
+        } else if (value instanceof Long) {
+            pst.setLong(index, (Long) value);
+        } else if (value instanceof Double) {
+            pst.setDouble(index, (Double) value);
+        } else if (value instanceof Float) {
+            pst.setFloat(index, (Float) value);
+        } else if (value instanceof Boolean) {
+            pst.setBoolean(index, (Boolean) value);
+        } else if (value instanceof BigDecimal) {
+            pst.setBigDecimal(index, (BigDecimal) value);
+        } else if (value instanceof Date) {
+            pst.setDate(index, (Date) value);
+        } else if (value instanceof Time) {
+            pst.setTime(index, (Time) value);
+        } else if (value instanceof Timestamp) {
+            pst.setTimestamp(index, (Timestamp) value);
+        } else if (value instanceof java.util.Date) {
+            pst.setTimestamp(index, new Timestamp(((java.util.Date) value).getTime()));
+        } else {
+            pst.setObject(index, value);
+        }
+    }
+
+    private SqlParams addPrimitive(byte type, long value) {
+        ensureCapacity();
+        types[size] = type;
+        primitiveValues[size] = value;
+        size++;
+        return this;
+    }
+
+    private SqlParams addObject(byte type, Object value) {
+        ensureCapacity();
+        types[size] = type;
+        objectValues[size] = value;
+        size++;
+        return this;
+    }
+
+    private void ensureCapacity() {
+        if (size == types.length) {
+            int newCapacity = types.length * 2;
+            types = Arrays.copyOf(types, newCapacity);
+            primitiveValues = Arrays.copyOf(primitiveValues, newCapacity);
+            objectValues = Arrays.copyOf(objectValues, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 读取编译时生成的服务索引
+ * 索引由 {@link ServiceIndexProcessor} 生成，类路径上所有 jar 中的同名索引合并读取。
+ */
+public class ServiceIndex {
+
+    /**
+     * 索引文件所在目录
+     */
+    public static final String INDEX_LOCATION = "META-INF/service-index/";
+    /**
+     * 带 @OrderCheckRule 注解的类
+     */
+    public static final String ORDER_CHECK_RULES = "order-check-rules";
+    /**
+     * 带 @MethodName 公有方法的服务类
+     */
+    public static final String DISPATCHER_SERVICES = "dispatcher-services";
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceIndex.class);
+
+    private ServiceIndex() {}
+
+    /**
+     * 读取索引中指定包及其子包下的类
+     *
+     * @param indexName 索引名称
+     * @param packageName 包名
+     * @return 类集合；没有索引或索引中没有该包的类时返回 null，由调用方扫描类路径
+     */
+    public static Set<Class<?>> load(String indexName, String packageName) {
+        ClassLoader classLoader = getClassLoader();
+        String prefix = packageName + ".";
+        Set<Class<?>> classSet = new LinkedHashSet<>();
+        try {
+            Enumeration<URL> urls = classLoader.getResources(INDEX_LOCATION + indexName);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        String className = line.trim();
+                        if (className.startsWith(prefix)) {
+                            addClass(classSet, className, classLoader, indexName);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("读取服务索引 {} 失败，改为扫描类路径：{}", indexName, e.getMessage());
+            return null;
+        }
+        return classSet.isEmpty() ? null : classSet;
+    }
+
+    /**
+     * 加载索引中的类，类已不存在或不能加载时跳过，不影响索引中的其他类
+     */
+    private static void addClass(Set<Class<?>> classSet, String className, ClassLoader classLoader, String indexName) {
+        try {
+            classSet.add(Class.forName(className, false, classLoader));
+        } catch (ClassNotFoundException | LinkageError e) {
+            logger.warn("服务索引 {} 中的类 {} 不能加载，已跳过：{}", indexName, className, e.toString());
+        }
+    }
+
+    private static ClassLoader getClassLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader != null ? classLoader : ServiceIndex.class.getClassLoader();
+    }
+}
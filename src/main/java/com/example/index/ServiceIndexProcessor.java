@@ -0,0 +1,177 @@
+package com.example.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 编译时生成服务索引的注解处理器
+ *
+ * 收集带 @OrderCheckRule 注解的类和带 @MethodName 公有方法的类，写入 META-INF/service-index 下的索引文件，
+ * 运行时由 {@link ServiceIndex} 读取，不再扫描类路径。
+ * 处理器与注解不在同一次编译中，注解按名称匹配，pom 中先单独编译本包，再编译其他代码时使用处理器。
+ * IDE、Gradle 增量编译时只处理改动的类，写入前合并已有的索引，去掉已不存在或不再带注解的类，避免生成不完整的索引。
+ * 只处理这两个注解，编译的类中都没有时处理器不运行，已有的索引保持不变，其中已不存在的类由 {@link ServiceIndex} 读取时跳过。
+ * 处理器只在 pom 中通过 annotationProcessors 注册，不随 jar 发布，依赖本项目的工程编译时不会运行；process 返回 false，不影响其他处理器。
+ */
+@SupportedAnnotationTypes({
+        "com.example.ordercheck.annotation.OrderCheckRule",
+        "com.example.servicedispatcher.annotation.MethodName"
+})
+public class ServiceIndexProcessor extends AbstractProcessor {
+
+    static final String ORDER_CHECK_RULE_ANNOTATION = "com.example.ordercheck.annotation.OrderCheckRule";
+    static final String METHOD_NAME_ANNOTATION = "com.example.servicedispatcher.annotation.MethodName";
+
+    /**
+     * 多轮处理中收集的类名，最后一轮统一写入
+     */
+    private final Set<String> orderCheckRuleClassNames = new TreeSet<>();
+    private final Set<String> serviceClassNames = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Elements elements = processingEnv.getElementUtils();
+        for (TypeElement annotation : annotations) {
+            String annotationName = annotation.getQualifiedName().toString();
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (ORDER_CHECK_RULE_ANNOTATION.equals(annotationName) && element.getKind() == ElementKind.CLASS) {
+                    orderCheckRuleClassNames.add(elements.getBinaryName((TypeElement) element).toString());
+                } else if (METHOD_NAME_ANNOTATION.equals(annotationName) && element.getKind() == ElementKind.METHOD) {
+                    TypeElement serviceElement = (TypeElement) element.getEnclosingElement();
+                    if (!element.getModifiers().contains(Modifier.PUBLIC)) {
+                        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                                "不是公有方法，@MethodName 注解无效", element);
+                    } else if (serviceElement.getKind() == ElementKind.CLASS) {
+                        serviceClassNames.add(elements.getBinaryName(serviceElement).toString());
+                    }
+                }
+            }
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex(ServiceIndex.ORDER_CHECK_RULES, mergeExistingIndex(ServiceIndex.ORDER_CHECK_RULES, orderCheckRuleClassNames));
+            writeIndex(ServiceIndex.DISPATCHER_SERVICES, mergeExistingIndex(ServiceIndex.DISPATCHER_SERVICES, serviceClassNames));
+        }
+        return false;
+    }
+
+    /**
+     * 合并上次编译生成的索引
+     * 本次编译没有处理到的类，仍能解析且仍带注解时保留。
+     *
+     * @return 合并后的类名；没有已有索引且本次没有类时返回 null，不写入索引
+     */
+    private Set<String> mergeExistingIndex(String indexName, Set<String> classNames) {
+        Set<String> existing = readExistingIndex(indexName);
+        if (existing == null) {
+            return classNames.isEmpty() ? null : classNames;
+        }
+        Set<String> merged = new TreeSet<>(classNames);
+        Elements elements = processingEnv.getElementUtils();
+        for (String className : existing) {
+            if (merged.contains(className)) {
+                continue;
+            }
+            TypeElement typeElement = elements.getTypeElement(className.replace('$', '.'));
+            if (typeElement != null && isIndexed(indexName, typeElement)) {
+                merged.add(className);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 读取输出目录中已有的索引，不存在时返回 null
+     */
+    private Set<String> readExistingIndex(String indexName) {
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", ServiceIndex.INDEX_LOCATION + indexName);
+            Set<String> classNames = new TreeSet<>();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.trim().isEmpty()) {
+                        classNames.add(line.trim());
+                    }
+                }
+            }
+            return classNames;
+        } catch (IOException | IllegalArgumentException e) {
+            // 首次编译没有索引
+            return null;
+        }
+    }
+
+    /**
+     * 类是否仍应在索引中
+     */
+    private static boolean isIndexed(String indexName, TypeElement typeElement) {
+        if (typeElement.getKind() != ElementKind.CLASS) {
+            return false;
+        }
+        if (ServiceIndex.ORDER_CHECK_RULES.equals(indexName)) {
+            return hasAnnotation(typeElement, ORDER_CHECK_RULE_ANNOTATION);
+        }
+        for (Element enclosed : typeElement.getEnclosedElements()) {
+            if (enclosed.getKind() == ElementKind.METHOD && enclosed.getModifiers().contains(Modifier.PUBLIC)
+                    && hasAnnotation(enclosed, METHOD_NAME_ANNOTATION)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 写入索引文件，每行一个类名，classNames 为 null 时不写入
+     */
+    private void writeIndex(String indexName, Set<String> classNames) {
+        if (classNames == null) {
+            return;
+        }
+        Filer filer = processingEnv.getFiler();
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", ServiceIndex.INDEX_LOCATION + indexName);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (String className : classNames) {
+                    writer.write(className);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "写入服务索引 " + indexName + " 失败：" + e.getMessage());
+        }
+    }
+}
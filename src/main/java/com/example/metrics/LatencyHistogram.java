@@ -0,0 +1,131 @@
+package com.example.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时直方图，单位纳秒
+ *
+ * 采用对数分桶：小于16纳秒每纳秒一个桶，之后每个2的幂区间再均分为8个桶，相对误差不超过12.5%。
+ * 记录只做一次数组原子加和两次 LongAdder 累加，不加锁、不分配内存，可以在热点路径上使用。
+ * 读取分位数时遍历全部桶，读到的是近似值。
+ */
+public class LatencyHistogram {
+
+    /**
+     * 线性区间的桶数
+     */
+    private static final int LINEAR_BUCKETS = 16;
+    /**
+     * 每个2的幂区间均分的桶数，取2的幂
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + (63 - 4) * SUB_BUCKETS + SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * 记录一次耗时
+     */
+    public void record(long nanos) {
+        record(nanos, 1);
+    }
+
+    /**
+     * 记录多次相同的耗时，比如批量执行时每条的平均耗时
+     */
+    public void record(long nanos, long times) {
+        long value = nanos < 0 ? 0 : nanos;
+        buckets.addAndGet(bucketIndex(value), times);
+        count.add(times);
+        sum.add(value * times);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 平均耗时，单位纳秒
+     */
+    public double getMean() {
+        long c = count.sum();
+        return c == 0 ? 0 : (double) sum.sum() / c;
+    }
+
+    /**
+     * 最大耗时，单位纳秒
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * 分位数耗时，单位纳秒
+     *
+     * @param percentile 分位数，比如 0.99
+     * @return 所在桶的上界，没有记录时为0
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(total * Math.min(Math.max(percentile, 0), 1));
+        if (target < 1) {
+            target = 1;
+        }
+        long accumulated = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            accumulated += counts[i];
+            if (accumulated >= target) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * 清空记录
+     * 与记录同时进行时，清空前后的记录可能部分保留。
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+        int subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long base = 1L << exponent;
+        long width = base >>> SUB_BUCKET_BITS;
+        return base + width * (subBucket + 1) - 1;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.ordercheck;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 医嘱校验执行计划
+ * 每个 sourceType 一个，在初始化和刷新缓存时创建，创建后不再修改。
+ */
+final class CheckPlan {
+
+    final String sourceType;
+    /**
+     * 按 ordinal 从小到大排列的校验步骤
+     */
+    final CheckStep[] steps;
+    /**
+     * 按 ordinal 从小到大排列的执行阶段
+     * 相邻且并行分组相同的步骤合为一个阶段并行执行，其他步骤各自为一个阶段。
+     */
+    final CheckStep[][] stages;
+    /**
+     * 是否存在并行执行的阶段，不存在时直接按步骤顺序执行
+     */
+    final boolean hasParallelStage;
+
+    CheckPlan(String sourceType, CheckStep[] steps) {
+        this.sourceType = sourceType;
+        this.steps = steps;
+        List<CheckStep[]> stageList = new ArrayList<>(steps.length);
+        boolean parallel = false;
+        int start = 0;
+        while (start < steps.length) {
+            String group = steps[start].parallelGroup;
+            int end = start + 1;
+            while (null != group && end < steps.length && group.equals(steps[end].parallelGroup)) {
+                end++;
+            }
+            if (end - start > 1) {
+                parallel = true;
+            }
+            stageList.add(Arrays.copyOfRange(steps, start, end));
+            start = end;
+        }
+        this.stages = stageList.toArray(new CheckStep[0][]);
+        this.hasParallelStage = parallel;
+    }
+}
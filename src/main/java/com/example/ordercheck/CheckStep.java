@@ -0,0 +1,39 @@
+package com.example.ordercheck;
+
+import com.example.ordercheck.annotation.OrderCheckRule;
+import com.example.ordercheck.entity.CpoeOrderCheckRule;
+import com.example.ordercheck.metrics.OrderCheckMetrics;
+import com.example.ordercheck.metrics.RuleMetrics;
+import com.example.ordercheck.rule.OrderCheckExecutor;
+
+/**
+ * 医嘱校验执行计划中的一步，即一条规则及其执行器
+ */
+final class CheckStep {
+
+    final CpoeOrderCheckRule rule;
+    final OrderCheckExecutor executor;
+    /**
+     * 校验不通过时返回的限制级别，为空表示沿用执行器设置的返回码
+     */
+    final String limitLevel;
+    /**
+     * 并行分组，取自执行器类上的 @OrderCheckRule，为空表示不并行
+     */
+    final String parallelGroup;
+    /**
+     * 该规则在所属 sourceType 下的统计
+     */
+    final RuleMetrics metrics;
+
+    CheckStep(String sourceType, CpoeOrderCheckRule rule, OrderCheckExecutor executor) {
+        this.rule = rule;
+        this.executor = executor;
+        String level = rule.getLimitLevel();
+        this.limitLevel = null != level && level.length() > 0 ? level : null;
+        OrderCheckRule annotation = executor.getClass().getAnnotation(OrderCheckRule.class);
+        String group = null == annotation ? null : annotation.parallelGroup();
+        this.parallelGroup = null != group && group.length() > 0 ? group : null;
+        this.metrics = OrderCheckMetrics.getInstance().getRuleMetrics(sourceType, rule.getRuleName());
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.ordercheck;
 
+import com.example.index.ServiceIndex;
 import com.example.ordercheck.annotation.OrderCheckRule;
 import com.example.ordercheck.dao.CpoeOrderCheckRuleDAO;
 import com.example.ordercheck.dto.OrderCheckServiceDto;
 import com.example.ordercheck.entity.CpoeOrderCheckRule;
+import com.example.ordercheck.metrics.OrderCheckMetrics;
 import com.example.ordercheck.result.Result;
 import com.example.ordercheck.rule.OrderCheckExecutor;
 import com.example.ordercheck.rule.PostCheck;
@@ -11,12 +13,19 @@ import com.example.ordercheck.rule.PreCheck;
 import org.reflections.Reflections;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -28,17 +37,10 @@ import java.util.stream.Collectors;
 public class OrderCheckManager {
 
     /**
-     * 缓存医嘱校验规则
-     * 从数据库获取数据
-     * key是opType，value是该opType下的医嘱校验规则集合，按ordinal从小到大排序
+     * 医嘱校验执行计划的缓存快照
+     * 初始化和刷新时整体替换，读取时不加锁，总是读到同一次刷新产生的规则和执行器。为空表示还未初始化。
      */
-    private static HashMap<String, List<CpoeOrderCheckRule>> ruleCache;
-    /**
-     * 缓存医嘱校验执行器
-     * 外层的HashMap：key是opType，value是该opType下的医嘱校验执行器集合
-     * 内层的HashMap：key是医嘱校验规则名称，value是相应的医嘱校验执行器
-     */
-    private static HashMap<String, HashMap<String, OrderCheckExecutor>> executorCache;
+    private static volatile RuleSnapshot ruleSnapshot;
     /**
      * 前置医嘱校验执行器，总是第一个执行
      */
@@ -52,47 +54,67 @@ public class OrderCheckManager {
      */
     private static final CpoeOrderCheckRuleDAO cpoeOrderCheckRuleDAO = CpoeOrderCheckRuleDAO.getInstance();
     /**
-     * 规则所在的文件路径，用于扫描注解
+     * 并行执行规则的线程数，可通过系统属性 ordercheck.parallelThreads 设置，默认为CPU核数
      */
-    private static final String RULE_PACKAGE_NAME = "com.haitaiinc.htmzinterface.service.ordercheckservice.rule";
+    private static final int PARALLEL_THREADS = Integer.getInteger("ordercheck.parallelThreads", Runtime.getRuntime().availableProcessors());
     /**
-     * 是否已启动
+     * 并行执行规则的线程池
+     * 线程数和队列长度都有上限，队列满时由调用线程自己执行，不会无限堆积任务。
      */
-    private static boolean isInit = false;
+    private static final ExecutorService parallelExecutor = new ThreadPoolExecutor(PARALLEL_THREADS, PARALLEL_THREADS,
+            60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(PARALLEL_THREADS * 64), new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
 
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "order-check-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }, new ThreadPoolExecutor.CallerRunsPolicy());
+    /**
+     * 规则所在的文件路径，用于扫描注解
+     */
+    private static final String RULE_PACKAGE_NAME = "com.haitaiinc.htmzinterface.service.ordercheckservice.rule";
     /**
      * 启动方法
      * 扫描医嘱校验规则注解的类，向数据库中插入医嘱校验规则，缓存医嘱校验规则和执行器
      */
-    public static void init() throws Exception {
+    public synchronized static void init() throws Exception {
         Set<Class<?>> classSet = loadRuleClass();
         List<CpoeOrderCheckRule> newRuleList  = createOrderCheckRuleList(classSet);
         insertNewRule(newRuleList);
-        List<CpoeOrderCheckRule> ruleList = selectAllAvailableRule();
-        ruleCache = createOpTypeAndRuleListMap(ruleList);
-        executorCache = createOpTypeAndExecutorMap(ruleCache);
-        isInit = true;
+        ruleSnapshot = createRuleSnapshot(selectAllAvailableRule());
+        OrderCheckMetrics.registerMBean();
     }
 
     /**
      * 刷新缓存
      * 若数据库的校验规则变更了，则执行该方法
+     * 新的规则和执行器全部创建完成后，才替换缓存快照，刷新期间校验仍使用旧的快照。
      */
     public synchronized static void refreshCache() throws Exception {
-        if (!isInit) {
+        if (null == ruleSnapshot) {
             throw new Exception("医嘱校验管理器还未初始化，请先调用本类 init 方法");
         }
-        List<CpoeOrderCheckRule> ruleList = selectAllAvailableRule();
-        ruleCache = createOpTypeAndRuleListMap(ruleList);
-        executorCache = createOpTypeAndExecutorMap(ruleCache);
+        ruleSnapshot = createRuleSnapshot(selectAllAvailableRule());
+    }
+
+    /**
+     * 使用给定的规则创建缓存快照，不扫描注解，也不读写数据库
+     * 供测试和基准使用。
+     */
+    synchronized static void loadRules(List<CpoeOrderCheckRule> ruleList) throws Exception {
+        ruleSnapshot = createRuleSnapshot(ruleList);
     }
 
     /**
      * 主入口
-     * 根据opType获取缓存的医嘱校验执行器，按顺序执行校验，返回校验结果
+     * 根据opType获取缓存的执行计划，按顺序执行校验，返回校验结果
      */
     public static Result check(OrderCheckServiceDto paramDto) throws Exception {
-        if (!isInit) {
+        RuleSnapshot snapshot = ruleSnapshot;
+        if (null == snapshot) {
             throw new Exception("医嘱校验管理器还未初始化，请先调用本类 init 方法");
         }
         if (null == paramDto) {
@@ -102,59 +124,244 @@ public class OrderCheckManager {
         if (null == sourceType || sourceType.length() == 0) {
             throw new Exception("参数 sourceType 为空");
         }
-        Map<String, Object> ruleListAndExecutorList = getRuleListAndExecutorListFromCache(sourceType);
-        List<CpoeOrderCheckRule> ruleList = (List<CpoeOrderCheckRule>) ruleListAndExecutorList.get("ruleList");
-        List<OrderCheckExecutor> executorList = (List<OrderCheckExecutor>) ruleListAndExecutorList.get("executorList");
-        return checkInOrder(ruleList, executorList, paramDto);
+        CheckPlan plan = snapshot.planCache.get(sourceType);
+        if (null == plan) {
+            throw new Exception("sourceType=" + sourceType + " 的医嘱校验规则不存在");
+        }
+        return checkInOrder(plan, paramDto);
     }
 
     /**
-     * 从缓存中获取执行器集合
+     * 批量校验入口
+     * 一次校验多条医嘱，返回与入参顺序一致的校验结果。
+     * 同一 sourceType 的医嘱按规则顺序逐条规则执行：每条规则对尚未被拦截的医嘱调用一次 checkBatch，
+     * 某条医嘱不通过后，后续规则不再校验该医嘱。批量校验时并行分组不生效，规则依次执行。
      */
-    private synchronized static Map<String, Object> getRuleListAndExecutorListFromCache(String sourceType) throws Exception {
-        List<CpoeOrderCheckRule> ruleList = ruleCache.get(sourceType);
-        if (null == ruleList || ruleList.isEmpty()) {
-            throw new Exception("sourceType=" + sourceType + " 的医嘱校验规则不存在");
+    public static List<Result> checkBatch(List<OrderCheckServiceDto> paramDtoList) throws Exception {
+        RuleSnapshot snapshot = ruleSnapshot;
+        if (null == snapshot) {
+            throw new Exception("医嘱校验管理器还未初始化，请先调用本类 init 方法");
         }
-        HashMap<String, OrderCheckExecutor> ruleNameAndExecutorMap = executorCache.get(sourceType);
-        if (null == ruleNameAndExecutorMap || ruleNameAndExecutorMap.isEmpty()) {
-            throw new Exception("sourceType=" + sourceType + " 的医嘱校验执行器不存在");
+        if (null == paramDtoList) {
+            throw new Exception("参数 paramDtoList 为空");
         }
-        List<OrderCheckExecutor> executorList = new ArrayList<>(ruleList.size() + 2);
-        for (CpoeOrderCheckRule rule : ruleList) {
-            String ruleName = rule.getRuleName();
-            OrderCheckExecutor executor = ruleNameAndExecutorMap.get(ruleName);
-            if (null == executor) {
-                throw new Exception("sourceType=" + sourceType + ",ruleName=" + ruleName + " 的医嘱校验执行器不存在");
+        int size = paramDtoList.size();
+        List<Result> resultList = new ArrayList<>(size);
+        HashMap<String, List<Integer>> sourceTypeAndIndexListMap = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            OrderCheckServiceDto paramDto = paramDtoList.get(i);
+            if (null == paramDto) {
+                throw new Exception("参数 paramDtoList 中第 " + i + " 个 paramDto 为空");
+            }
+            String sourceType = paramDto.sourceType;
+            if (null == sourceType || sourceType.length() == 0) {
+                throw new Exception("参数 paramDtoList 中第 " + i + " 个 sourceType 为空");
+            }
+            if (!snapshot.planCache.containsKey(sourceType)) {
+                throw new Exception("sourceType=" + sourceType + " 的医嘱校验规则不存在");
             }
-            executorList.add(executor);
+            sourceTypeAndIndexListMap.computeIfAbsent(sourceType, k -> new ArrayList<>()).add(i);
+            resultList.add(new Result("1", "成功"));
         }
-        Map<String, Object> map = new HashMap<>();
-        map.put("ruleList", ruleList);
-        map.put("executorList", executorList);
-        return map;
+        for (Map.Entry<String, List<Integer>> entry : sourceTypeAndIndexListMap.entrySet()) {
+            CheckPlan plan = snapshot.planCache.get(entry.getKey());
+            checkBatchInOrder(plan, entry.getValue(), paramDtoList, resultList);
+        }
+        return resultList;
     }
 
     /**
-     * 按顺序执行校验，返回校验结果
+     * 按执行计划的顺序批量执行校验
+     *
+     * @param indexList 属于该执行计划的医嘱在 paramDtoList 中的下标
      */
-    private static Result checkInOrder(List<CpoeOrderCheckRule> ruleList, List<OrderCheckExecutor> executorList, OrderCheckServiceDto paramDto) throws Exception {
+    private static void checkBatchInOrder(CheckPlan plan, List<Integer> indexList, List<OrderCheckServiceDto> paramDtoList, List<Result> resultList) throws Exception {
+        List<OrderCheckServiceDto> pendingDtoList = new ArrayList<>(indexList.size());
+        List<Result> pendingResultList = new ArrayList<>(indexList.size());
+        for (Integer index : indexList) {
+            pendingDtoList.add(paramDtoList.get(index));
+            pendingResultList.add(resultList.get(index));
+        }
+        for (CheckStep step : plan.steps) {
+            int total = pendingResultList.size();
+            long start = System.nanoTime();
+            try {
+                step.executor.checkBatch(pendingDtoList, pendingResultList);
+            } catch (Exception e) {
+                step.metrics.recordError(System.nanoTime() - start);
+                throw e;
+            }
+            long elapsed = System.nanoTime() - start;
+            int kept = 0;
+            for (int i = 0; i < total; i++) {
+                Result result = pendingResultList.get(i);
+                if (!result.isSuccess()) {
+                    if (null != step.limitLevel) {
+                        result.setCode(step.limitLevel);
+                    }
+                    step.metrics.countFailCode(result.getCode());
+                    continue;
+                }
+                pendingDtoList.set(kept, pendingDtoList.get(i));
+                pendingResultList.set(kept, result);
+                kept++;
+            }
+            step.metrics.recordBatch(elapsed, total, total - kept);
+            if (kept == 0) {
+                return;
+            }
+            if (kept < pendingResultList.size()) {
+                pendingDtoList.subList(kept, pendingDtoList.size()).clear();
+                pendingResultList.subList(kept, pendingResultList.size()).clear();
+            }
+        }
+    }
+
+    /**
+     * 按执行计划的顺序执行校验，返回校验结果
+     * 计划中有并行阶段时，按阶段执行，同一阶段的规则同时执行。
+     */
+    private static Result checkInOrder(CheckPlan plan, OrderCheckServiceDto paramDto) throws Exception {
         Result result = new Result("1", "成功");
-        for (int i = 0; i < ruleList.size(); i++) {
-            CpoeOrderCheckRule rule = ruleList.get(i);
-            OrderCheckExecutor executor = executorList.get(i);
-            executor.check(paramDto, result);
-            if (!result.isSuccess()) {
-                String limitLevel = rule.getLimitLevel();
-                if (null != limitLevel && limitLevel.length() > 0) {
-                    result.setCode(limitLevel);
+        if (!plan.hasParallelStage) {
+            for (CheckStep step : plan.steps) {
+                if (!checkStep(step, paramDto, result)) {
+                    return result;
                 }
+            }
+            return result;
+        }
+        for (CheckStep[] stage : plan.stages) {
+            boolean isSuccess = stage.length == 1 ? checkStep(stage[0], paramDto, result) : checkInParallel(stage, paramDto, result);
+            if (!isSuccess) {
                 return result;
             }
         }
         return result;
     }
 
+    /**
+     * 执行一条规则，不通过时设置限制级别
+     *
+     * @return 是否通过
+     */
+    private static boolean checkStep(CheckStep step, OrderCheckServiceDto paramDto, Result result) throws Exception {
+        long start = System.nanoTime();
+        try {
+            step.executor.check(paramDto, result);
+        } catch (Exception e) {
+            step.metrics.recordError(System.nanoTime() - start);
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (!result.isSuccess()) {
+            if (null != step.limitLevel) {
+                result.setCode(step.limitLevel);
+            }
+            step.metrics.recordFail(elapsed, result.getCode());
+            return false;
+        }
+        step.metrics.recordPass(elapsed);
+        return true;
+    }
+
+    /**
+     * 并行执行同一阶段的规则
+     * 第一条规则在当前线程执行，其余规则提交到线程池，各自使用独立的 Result。
+     * 按 ordinal 顺序等待结果：通过的规则合并其返回数据；遇到第一条不通过或抛出异常的规则时，取消其后尚未完成的规则，
+     * 以该规则的结果为准。
+     *
+     * @return 是否全部通过
+     */
+    private static boolean checkInParallel(CheckStep[] stage, OrderCheckServiceDto paramDto, Result result) throws Exception {
+        List<Future<Result>> futureList = new ArrayList<>(stage.length - 1);
+        for (int i = 1; i < stage.length; i++) {
+            CheckStep step = stage[i];
+            futureList.add(parallelExecutor.submit(() -> {
+                Result r = new Result("1", "成功");
+                long start = System.nanoTime();
+                try {
+                    step.executor.check(paramDto, r);
+                } catch (Exception e) {
+                    step.metrics.recordError(System.nanoTime() - start);
+                    throw e;
+                }
+                long elapsed = System.nanoTime() - start;
+                if (r.isSuccess()) {
+                    step.metrics.recordPass(elapsed);
+                } else {
+                    step.metrics.recordFail(elapsed, null != step.limitLevel ? step.limitLevel : r.getCode());
+                }
+                return r;
+            }));
+        }
+        try {
+            if (!checkStep(stage[0], paramDto, result)) {
+                return false;
+            }
+            for (int i = 1; i < stage.length; i++) {
+                Result r;
+                try {
+                    r = futureList.get(i - 1).get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof Exception ? (Exception) cause : e;
+                }
+                result.getData().putAll(r.getData());
+                if (!r.isSuccess()) {
+                    result.setCode(null != stage[i].limitLevel ? stage[i].limitLevel : r.getCode());
+                    result.setMessage(r.getMessage());
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            for (Future<Result> future : futureList) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 根据可用的医嘱校验规则创建缓存快照
+     */
+    private static RuleSnapshot createRuleSnapshot(List<CpoeOrderCheckRule> ruleList) throws Exception {
+        HashMap<String, List<CpoeOrderCheckRule>> ruleCache = createOpTypeAndRuleListMap(ruleList);
+        HashMap<String, HashMap<String, OrderCheckExecutor>> executorCache = createOpTypeAndExecutorMap(ruleCache);
+        return new RuleSnapshot(createOpTypeAndPlanMap(ruleCache, executorCache));
+    }
+
+    /**
+     * 根据医嘱校验规则和执行器，为每个opType创建执行计划
+     */
+    private static HashMap<String, CheckPlan> createOpTypeAndPlanMap(HashMap<String, List<CpoeOrderCheckRule>> opTypeAndRuleListMap,
+                                                                     HashMap<String, HashMap<String, OrderCheckExecutor>> opTypeAndExecutorMap) throws Exception {
+        HashMap<String, CheckPlan> opTypeAndPlanMap = new HashMap<>(opTypeAndRuleListMap.size() * 2);
+        for (Map.Entry<String, List<CpoeOrderCheckRule>> entry : opTypeAndRuleListMap.entrySet()) {
+            String sourceType = entry.getKey();
+            List<CpoeOrderCheckRule> ruleList = entry.getValue();
+            if (ruleList.isEmpty()) {
+                continue;
+            }
+            HashMap<String, OrderCheckExecutor> ruleNameAndExecutorMap = opTypeAndExecutorMap.get(sourceType);
+            if (null == ruleNameAndExecutorMap || ruleNameAndExecutorMap.isEmpty()) {
+                throw new Exception("sourceType=" + sourceType + " 的医嘱校验执行器不存在");
+            }
+            CheckStep[] steps = new CheckStep[ruleList.size()];
+            for (int i = 0; i < steps.length; i++) {
+                CpoeOrderCheckRule rule = ruleList.get(i);
+                String ruleName = rule.getRuleName();
+                OrderCheckExecutor executor = ruleNameAndExecutorMap.get(ruleName);
+                if (null == executor) {
+                    throw new Exception("sourceType=" + sourceType + ",ruleName=" + ruleName + " 的医嘱校验执行器不存在");
+                }
+                steps[i] = new CheckStep(sourceType, rule, executor);
+            }
+            opTypeAndPlanMap.put(sourceType, new CheckPlan(sourceType, steps));
+        }
+        return opTypeAndPlanMap;
+    }
+
     /**
      * 从数据库中获取可用的医嘱校验规则
      */
@@ -172,7 +379,7 @@ public class OrderCheckManager {
     /**
      * 根据opType组织医嘱校验规则，根据ordinal从小到大排序
      */
-    private static HashMap<String, List<CpoeOrderCheckRule>> createOpTypeAndRuleListMap(List<CpoeOrderCheckRule> ruleList) {
+    static HashMap<String, List<CpoeOrderCheckRule>> createOpTypeAndRuleListMap(List<CpoeOrderCheckRule> ruleList) {
         if (null == ruleList || ruleList.isEmpty()) {
             return new HashMap<>(0);
         }
@@ -191,11 +398,44 @@ public class OrderCheckManager {
             }
         }
         for (List<CpoeOrderCheckRule> list : opTypeAndRuleListMap.values()) {
-            list.stream().sorted(Comparator.comparing(CpoeOrderCheckRule::getOrdinal));
+            list.sort(OrderCheckManager::compareOrdinal);
         }
         return opTypeAndRuleListMap;
     }
 
+    /**
+     * 按 ordinal 比较规则顺序
+     * 数字的 ordinal 排在前面，按数值比较，比如 7 排在 10 之前；其余的排在后面，按字符串比较。
+     * 每个 ordinal 先确定是否为数字再比较，任意混合的 ordinal 都有确定的顺序。
+     */
+    static int compareOrdinal(CpoeOrderCheckRule r1, CpoeOrderCheckRule r2) {
+        String o1 = r1.getOrdinal() == null ? "" : r1.getOrdinal().trim();
+        String o2 = r2.getOrdinal() == null ? "" : r2.getOrdinal().trim();
+        Long n1 = parseOrdinal(o1);
+        Long n2 = parseOrdinal(o2);
+        if (null != n1 && null != n2) {
+            return Long.compare(n1, n2);
+        }
+        if (null != n1) {
+            return -1;
+        }
+        if (null != n2) {
+            return 1;
+        }
+        return o1.compareTo(o2);
+    }
+
+    /**
+     * @return ordinal 的数值，不是数字时返回 null
+     */
+    private static Long parseOrdinal(String ordinal) {
+        try {
+            return Long.parseLong(ordinal);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     /**
      * 根据医嘱校验规则创建医嘱校验执行器实例
      */
@@ -227,6 +467,10 @@ public class OrderCheckManager {
      * 扫描医嘱校验执行器
      */
     private static Set<Class<?>> loadRuleClass() {
+        Set<Class<?>> classSet = ServiceIndex.load(ServiceIndex.ORDER_CHECK_RULES, RULE_PACKAGE_NAME);
+        if (classSet != null) {
+            return classSet;
+        }
         Reflections reflections = new Reflections(RULE_PACKAGE_NAME);
         return reflections.getTypesAnnotatedWith(OrderCheckRule.class);
     }
@@ -241,6 +485,10 @@ public class OrderCheckManager {
         List<CpoeOrderCheckRule> ruleList = new ArrayList<>();
         for (Class<?> aClass : classSet) {
             OrderCheckRule annotation = aClass.getDeclaredAnnotation(OrderCheckRule.class);
+            if (annotation == null) {
+                // 服务索引过期时可能包含已去掉注解的类
+                continue;
+            }
             CpoeOrderCheckRule rule = new CpoeOrderCheckRule();
             rule.setRuleId(UUID.randomUUID().toString().trim().replaceAll("-", " "));
             rule.setRuleName(annotation.ruleName());
@@ -274,4 +522,21 @@ public class OrderCheckManager {
         }
     }
 
+    /**
+     * 医嘱校验执行计划的缓存快照
+     * 创建后不再修改
+     */
+    private static final class RuleSnapshot {
+
+        /**
+         * 缓存医嘱校验执行计划
+         * key是opType，value是该opType下的执行计划，其中的规则按ordinal从小到大排序
+         */
+        private final HashMap<String, CheckPlan> planCache;
+
+        private RuleSnapshot(HashMap<String, CheckPlan> planCache) {
+            this.planCache = planCache;
+        }
+    }
+
 }
@@ -34,5 +34,11 @@ public @interface OrderCheckRule {
      * 是否可用，Y=可用,N=不可用
      */
     String available();
+    /**
+     * 并行分组，默认空字符串=不并行
+     * 按 ordinal 排序后相邻且分组相同的规则互不依赖，会同时执行；校验结果仍以 ordinal 最小的不通过规则为准。
+     * 并行执行的规则各自使用独立的 Result，不能依赖同组其他规则写入 Result 的内容。
+     */
+    String parallelGroup() default "";
 
 }
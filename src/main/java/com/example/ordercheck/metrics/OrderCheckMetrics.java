@@ -0,0 +1,74 @@
+package com.example.ordercheck.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 医嘱校验规则统计
+ * 按（sourceType，规则名称）记录校验次数、通过和不通过次数、不通过的返回码和耗时分布，通过 JMX 查看。
+ * 执行计划创建时取得每条规则的统计对象，校验时直接记录，不再查找。
+ */
+public class OrderCheckMetrics implements OrderCheckMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.example.ordercheck:type=OrderCheckMetrics";
+
+    private static final OrderCheckMetrics instance = new OrderCheckMetrics();
+    private static final Logger logger = LoggerFactory.getLogger(OrderCheckMetrics.class);
+
+    /**
+     * key是 sourceType + ":" + 规则名称，value是统计对象
+     */
+    private final ConcurrentHashMap<String, RuleMetrics> ruleMetricsMap = new ConcurrentHashMap<>();
+
+    private OrderCheckMetrics() {}
+
+    public static OrderCheckMetrics getInstance() {
+        return instance;
+    }
+
+    /**
+     * 获取统计对象，不存在则创建
+     * 刷新缓存后同一规则沿用原来的统计对象。
+     */
+    public RuleMetrics getRuleMetrics(String sourceType, String ruleName) {
+        return ruleMetricsMap.computeIfAbsent(sourceType + ":" + ruleName, k -> new RuleMetrics(sourceType, ruleName));
+    }
+
+    @Override
+    public List<RuleStats> getRuleStats() {
+        List<RuleStats> list = new ArrayList<>(ruleMetricsMap.size());
+        for (RuleMetrics ruleMetrics : ruleMetricsMap.values()) {
+            list.add(ruleMetrics.getStats());
+        }
+        return list;
+    }
+
+    @Override
+    public void reset() {
+        for (RuleMetrics ruleMetrics : ruleMetricsMap.values()) {
+            ruleMetrics.reset();
+        }
+    }
+
+    /**
+     * 注册到 JMX，重复调用只注册一次
+     */
+    public static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(instance, name);
+            }
+        } catch (Exception e) {
+            logger.warn("注册医嘱校验统计 MBean 失败：{}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.ordercheck.metrics;
+
+import java.util.List;
+
+/**
+ * 医嘱校验规则统计的 JMX 接口
+ * ObjectName 为 com.example.ordercheck:type=OrderCheckMetrics
+ */
+public interface OrderCheckMetricsMXBean {
+
+    /**
+     * 全部规则的统计数据
+     */
+    List<RuleStats> getRuleStats();
+
+    /**
+     * 清空统计数据
+     */
+    void reset();
+}
@@ -0,0 +1,135 @@
+package com.example.ordercheck.metrics;
+
+import com.example.metrics.LatencyHistogram;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单条医嘱校验规则在某个 sourceType 下的运行统计
+ * 计数使用 LongAdder，记录时不加锁。
+ */
+public class RuleMetrics {
+
+    private final String sourceType;
+    private final String ruleName;
+    /**
+     * 校验的医嘱条数
+     */
+    private final LongAdder invocationCount = new LongAdder();
+    private final LongAdder passCount = new LongAdder();
+    private final LongAdder failCount = new LongAdder();
+    /**
+     * 执行器抛出异常的次数
+     */
+    private final LongAdder errorCount = new LongAdder();
+    /**
+     * 不通过时的返回码计数
+     * key是返回码，即限制级别，value是次数
+     */
+    private final ConcurrentHashMap<String, LongAdder> failCodeCount = new ConcurrentHashMap<>();
+    /**
+     * 每条医嘱的校验耗时
+     */
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    RuleMetrics(String sourceType, String ruleName) {
+        this.sourceType = sourceType;
+        this.ruleName = ruleName;
+    }
+
+    /**
+     * 记录通过
+     */
+    public void recordPass(long nanos) {
+        invocationCount.increment();
+        passCount.increment();
+        latency.record(nanos);
+    }
+
+    /**
+     * 记录不通过
+     *
+     * @param code 最终的返回码
+     */
+    public void recordFail(long nanos, String code) {
+        invocationCount.increment();
+        failCount.increment();
+        latency.record(nanos);
+        failCodeCounter(code).increment();
+    }
+
+    /**
+     * 记录执行器抛出异常
+     */
+    public void recordError(long nanos) {
+        invocationCount.increment();
+        errorCount.increment();
+        latency.record(nanos);
+    }
+
+    /**
+     * 记录一次批量校验
+     * 耗时按条数平均计入。不通过的返回码由 {@link #countFailCode} 逐条记录。
+     *
+     * @param total 校验的医嘱条数
+     * @param failTotal 不通过的医嘱条数
+     */
+    public void recordBatch(long nanos, int total, int failTotal) {
+        if (total <= 0) {
+            return;
+        }
+        invocationCount.add(total);
+        passCount.add(total - failTotal);
+        failCount.add(failTotal);
+        latency.record(nanos / total, total);
+    }
+
+    /**
+     * 记录一次不通过的返回码
+     */
+    public void countFailCode(String code) {
+        failCodeCounter(code).increment();
+    }
+
+    private LongAdder failCodeCounter(String code) {
+        String key = null == code ? "" : code;
+        LongAdder counter = failCodeCount.get(key);
+        if (null == counter) {
+            counter = failCodeCount.computeIfAbsent(key, k -> new LongAdder());
+        }
+        return counter;
+    }
+
+    void reset() {
+        invocationCount.reset();
+        passCount.reset();
+        failCount.reset();
+        errorCount.reset();
+        failCodeCount.clear();
+        latency.reset();
+    }
+
+    /**
+     * 当前统计数据
+     */
+    public RuleStats getStats() {
+        Map<String, Long> failCodes = new HashMap<>();
+        for (Map.Entry<String, LongAdder> entry : failCodeCount.entrySet()) {
+            failCodes.put(entry.getKey(), entry.getValue().sum());
+        }
+        return new RuleStats(sourceType, ruleName, invocationCount.sum(), passCount.sum(), failCount.sum(), errorCount.sum(),
+                failCodes, latency.getMean(), latency.getValueAtPercentile(0.5), latency.getValueAtPercentile(0.99),
+                latency.getValueAtPercentile(0.999), latency.getMax());
+    }
+
+    public String getSourceType() {
+        return sourceType;
+    }
+
+    public String getRuleName() {
+        return ruleName;
+    }
+}
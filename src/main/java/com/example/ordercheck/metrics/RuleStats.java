@@ -0,0 +1,96 @@
+package com.example.ordercheck.metrics;
+
+import java.util.Map;
+
+/**
+ * 单条医嘱校验规则的统计数据快照，耗时单位纳秒
+ */
+public class RuleStats {
+
+    private final String sourceType;
+    private final String ruleName;
+    private final long invocationCount;
+    private final long passCount;
+    private final long failCount;
+    private final long errorCount;
+    /**
+     * key是不通过时的返回码，value是次数
+     */
+    private final Map<String, Long> failCodeCount;
+    private final double meanNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    public RuleStats(String sourceType, String ruleName, long invocationCount, long passCount, long failCount, long errorCount,
+                     Map<String, Long> failCodeCount, double meanNanos, long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+        this.sourceType = sourceType;
+        this.ruleName = ruleName;
+        this.invocationCount = invocationCount;
+        this.passCount = passCount;
+        this.failCount = failCount;
+        this.errorCount = errorCount;
+        this.failCodeCount = failCodeCount;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public String getSourceType() {
+        return sourceType;
+    }
+
+    public String getRuleName() {
+        return ruleName;
+    }
+
+    public long getInvocationCount() {
+        return invocationCount;
+    }
+
+    public long getPassCount() {
+        return passCount;
+    }
+
+    public long getFailCount() {
+        return failCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public Map<String, Long> getFailCodeCount() {
+        return failCodeCount;
+    }
+
+    public double getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * 失败率，即不通过和异常的次数占校验次数的比例
+     */
+    public double getFailRate() {
+        return invocationCount == 0 ? 0 : (double) (failCount + errorCount) / invocationCount;
+    }
+}
@@ -3,6 +3,8 @@ package com.example.ordercheck.rule;
 import com.example.ordercheck.dto.OrderCheckServiceDto;
 import com.example.ordercheck.result.Result;
 
+import java.util.List;
+
 /**
  * 医嘱校验执行器
  *
@@ -12,4 +14,14 @@ import com.example.ordercheck.result.Result;
 public interface OrderCheckExecutor {
 
     void check(OrderCheckServiceDto paramDto, Result result) throws Exception;
+
+    /**
+     * 批量校验，paramDtoList 与 resultList 按下标一一对应
+     * 默认逐个调用 check。需要查询数据库的规则可以重写本方法，一次查出所有医嘱需要的数据，再逐个设置校验结果。
+     */
+    default void checkBatch(List<OrderCheckServiceDto> paramDtoList, List<Result> resultList) throws Exception {
+        for (int i = 0; i < paramDtoList.size(); i++) {
+            check(paramDtoList.get(i), resultList.get(i));
+        }
+    }
 }
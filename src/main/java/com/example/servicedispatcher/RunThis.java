@@ -7,6 +7,7 @@ import java.util.HashMap;
 public class RunThis {
 
     public static void main(String[] args) throws Exception {
+        ServiceDispatcher.init("com.example.servicedispatcher.service");
         HashMap<String, Object> map = new HashMap<>();
         map.put("userName", "张三");
         map.put("password", "123456");
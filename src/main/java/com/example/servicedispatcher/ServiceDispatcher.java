@@ -1,25 +1,40 @@
 package com.example.servicedispatcher;
 
+import com.example.index.ServiceIndex;
 import com.example.servicedispatcher.annotation.MethodName;
-import com.example.servicedispatcher.annotation.ParamDto;
-import com.example.servicedispatcher.annotation.ParamHashMap;
-import com.example.servicedispatcher.dao.DAOFactory;
+import com.example.servicedispatcher.bulkhead.BulkheadConfig;
+import com.example.servicedispatcher.bulkhead.ServiceBulkhead;
+import com.example.servicedispatcher.cache.ResultCache;
+import com.example.servicedispatcher.inject.DependencyRegistry;
+import com.example.servicedispatcher.inject.InjectionPlan;
+import com.example.servicedispatcher.invoker.MethodInvoker;
+import com.example.servicedispatcher.limit.AdmissionController;
+import com.example.servicedispatcher.limit.MethodLimit;
+import com.example.servicedispatcher.metrics.DispatcherMetrics;
+import com.example.servicedispatcher.result.JsonResultCodec;
 import com.example.servicedispatcher.result.Result;
-import com.example.servicedispatcher.util.JavaBeanUtil;
+import com.example.servicedispatcher.result.ResultCodec;
+import org.reflections.Reflections;
+import org.reflections.scanners.MethodAnnotationsScanner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.util.StopWatch;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.lang.reflect.Parameter;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
 /**
- * 主程序调用外挂时，该工具类帮助创建服务对象、注入dao层、组织方法入参、调用指定的方法、返回结果、统一处理异常、记录方法运行时间
+ * 主程序调用外挂时，该工具类帮助创建服务对象、注入dao层、组织方法入参、限制并发和调用频率、调用指定的方法、返回结果、统一处理异常、统计方法调用次数和运行时间
+ * 统计数据通过 JMX 查看，见 {@link DispatcherMetrics}
  */
 public class ServiceDispatcher {
 
@@ -29,149 +44,438 @@ public class ServiceDispatcher {
      */
     private static ConcurrentHashMap<String, Object> serviceObjectCache = new ConcurrentHashMap<String, Object>();
     /**
-     * 缓存服务类的公有方法
-     * key是服务类的名称，包含路径名；value是 HashMap，其中key是@HtMethodName中的方法名，value是对应的公有方法。
+     * 缓存服务类的公有方法调用器
+     * key是服务类的名称，包含路径名；value是 HashMap，其中key是@HtMethodName中的方法名，value是对应公有方法的调用器。
      */
-    private static ConcurrentHashMap<String, HashMap<String, Method>> servicePublicMethodCache = new ConcurrentHashMap<String, HashMap<String, Method>>();
+    private static ConcurrentHashMap<String, HashMap<String, MethodInvoker>> serviceMethodInvokerCache = new ConcurrentHashMap<String, HashMap<String, MethodInvoker>>();
+    /**
+     * 缓存服务类的异步线程池
+     * key是服务类的名称，包含路径名；value是该服务独立的线程池。
+     */
+    private static final ConcurrentHashMap<String, ServiceBulkhead> serviceBulkheadCache = new ConcurrentHashMap<>();
+    /**
+     * 单独配置的异步线程池
+     * key是服务类的名称，包含路径名；value是配置。未配置的服务使用默认配置。
+     */
+    private static final ConcurrentHashMap<String, BulkheadConfig> bulkheadConfigMap = new ConcurrentHashMap<>();
     /**
      * 日志
      */
     private static Logger logger = LoggerFactory.getLogger(ServiceDispatcher.class);
+    /**
+     * 调用统计，同时决定是否记录调用日志
+     */
+    private static final DispatcherMetrics metrics = DispatcherMetrics.getInstance();
+
+    /**
+     * 返回值编解码，用于输出字节的入口，默认为 json
+     */
+    private static volatile ResultCodec resultCodec = new JsonResultCodec();
+
+    static {
+        DispatcherMetrics.registerMBean();
+    }
+
+    /**
+     * 启动方法
+     * 查找包中带 @MethodName 方法的服务类（优先读取编译时生成的索引），提前创建服务对象、注入dao、创建方法调用器，避免首次调用时的延迟。
+     * 方法名重复、服务类无法创建时抛出异常，应用应停止启动。可以多次调用，已创建的服务对象和调用器不会重复创建。
+     *
+     * @param packageName 服务类所在的包，包含子包
+     */
+    public synchronized static void init(String packageName) throws Exception {
+        long start = System.nanoTime();
+        Set<Class<?>> serviceClassSet = loadServiceClass(packageName);
+        int methodCount = 0;
+        for (Class<?> serviceClass : serviceClassSet) {
+            if (Modifier.isAbstract(serviceClass.getModifiers())) {
+                logger.warn("类 {} 是抽象类或接口，不能作为服务类", serviceClass.getName());
+                continue;
+            }
+            getServiceObject(serviceClass);
+            methodCount += getMethodInvokers(serviceClass).size();
+        }
+        long elapsed = System.nanoTime() - start;
+        metrics.recordStartup(elapsed);
+        logger.info("服务分发器启动完成，包 {}，服务类 {} 个，方法 {} 个，耗时 {} ms", packageName, serviceClassSet.size(), methodCount, elapsed / 1000000);
+    }
+
+    /**
+     * 获取包中带 @MethodName 公有方法的服务类
+     * 优先读取编译时生成的索引，没有索引时扫描类路径
+     */
+    private static Set<Class<?>> loadServiceClass(String packageName) {
+        Set<Class<?>> serviceClassSet = ServiceIndex.load(ServiceIndex.DISPATCHER_SERVICES, packageName);
+        if (serviceClassSet != null) {
+            return serviceClassSet;
+        }
+        Reflections reflections = new Reflections(packageName, new MethodAnnotationsScanner());
+        serviceClassSet = new LinkedHashSet<>();
+        for (Method method : reflections.getMethodsAnnotatedWith(MethodName.class)) {
+            if (!isPublicMethod(method)) {
+                logger.warn("类 {} 中方法 {} 不是公有方法，@MethodName 注解无效", method.getDeclaringClass().getName(), method.getName());
+                continue;
+            }
+            serviceClassSet.add(method.getDeclaringClass());
+        }
+        return serviceClassSet;
+    }
+
+    /**
+     * 预热服务方法，用给定的参数调用多次，让方法调用和参数组织的代码在接收请求前完成编译
+     * 预热调用与正常调用相同，会执行服务方法并计入统计，只应对没有副作用的方法使用，参数由调用方提供。
+     *
+     * @param times 调用次数
+     */
+    public static void warmUp(Class<?> serviceClass, String methodName, HashMap<String, Object> paramMap, int times) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            executeForResult(serviceClass, methodName, paramMap == null ? null : new HashMap<>(paramMap));
+        }
+        logger.info("预热方法 {}#{} {} 次，耗时 {} ms", serviceClass.getName(), methodName, times, (System.nanoTime() - start) / 1000000);
+    }
 
     /**
      * 主入口
      */
     public static String execute(Class<?> serviceClass, String methodName, HashMap<String, Object> paramMap) throws Exception {
+        return execute(serviceClass, methodName, paramMap, new JsonInvocation(paramMap), Result::getJsonString);
+    }
+
+    /**
+     * 主入口，将结果 json 直接写入调用方提供的 Writer
+     * 返回数据较大时使用，不会生成完整的 json 字符串。写完后 flush，不关闭 writer。
+     */
+    public static void execute(Class<?> serviceClass, String methodName, HashMap<String, Object> paramMap, Writer writer) throws Exception {
+        executeForResult(serviceClass, methodName, paramMap).writeJson(writer);
+    }
+
+    /**
+     * 主入口，将结果按设置的编解码方式直接写入调用方提供的 OutputStream
+     * 默认为 UTF-8 编码的 json。返回数据较大时使用，不会生成完整的结果字符串。写完后 flush，不关闭 outputStream。
+     * @see #setResultCodec
+     */
+    public static void execute(Class<?> serviceClass, String methodName, HashMap<String, Object> paramMap, OutputStream outputStream) throws Exception {
+        resultCodec.encode(executeForResult(serviceClass, methodName, paramMap), outputStream);
+    }
+
+    /**
+     * 主入口，返回按设置的编解码方式编码后的结果
+     * @see #setResultCodec
+     */
+    public static byte[] executeEncoded(Class<?> serviceClass, String methodName, HashMap<String, Object> paramMap) throws Exception {
+        return resultCodec.encode(executeForResult(serviceClass, methodName, paramMap));
+    }
+
+    /**
+     * 设置返回值编解码方式，对之后的调用生效
+     * 只影响输出字节的入口，返回字符串和写入 Writer 的入口始终为 json。
+     * 调用方可以用同一个编解码对象的 decode 方法解析结果。
+     */
+    public static void setResultCodec(ResultCodec codec) {
+        if (codec == null) {
+            throw new IllegalArgumentException("返回值编解码方式不能为空");
+        }
+        resultCodec = codec;
+    }
+
+    public static ResultCodec getResultCodec() {
+        return resultCodec;
+    }
+
+    /**
+     * 异步主入口，在服务独立的线程池中调用，结果同 {@link #execute(Class, String, HashMap)}
+     * 线程池和队列已满或超时时，结果为禁止结果的 json，线程池配置见 {@link #configureBulkhead}。
+     */
+    public static CompletableFuture<String> executeAsync(Class<?> serviceClass, String methodName, HashMap<String, Object> paramMap) throws Exception {
         if (serviceClass == null) {
             throw new Exception("服务类型为空");
         }
-        logger.info("开始方法 " + methodName);
-        logger.info("接收到参数 paramMap: " + paramMap);
-        StopWatch stopWatch = new StopWatch();
-        stopWatch.start();
-        Result result;
+        Callable<String> task = () -> execute(serviceClass, methodName, paramMap);
+        ServiceBulkhead bulkhead = getServiceBulkhead(serviceClass);
+        while (true) {
+            try {
+                return bulkhead.submit(task);
+            } catch (RejectedExecutionException e) {
+                // 取到线程池后线程池被替换并停止，改用新的线程池
+                ServiceBulkhead current = getServiceBulkhead(serviceClass);
+                if (current == bulkhead) {
+                    throw e;
+                }
+                bulkhead = current;
+            }
+        }
+    }
+
+    /**
+     * 配置服务的异步线程池，已创建的线程池会被替换，替换前已提交的任务继续执行
+     * 先发布新的线程池再停止旧的；已取到旧线程池、尚未提交的调用被旧线程池拒绝后，改为提交到新的线程池。
+     */
+    public static void configureBulkhead(Class<?> serviceClass, BulkheadConfig config) {
+        String serviceName = serviceClass.getName();
+        bulkheadConfigMap.put(serviceName, config);
+        ServiceBulkhead old = serviceBulkheadCache.put(serviceName, new ServiceBulkhead(serviceClass, config));
+        if (old != null) {
+            old.shutdown();
+        }
+    }
+
+    private static ServiceBulkhead getServiceBulkhead(Class<?> serviceClass) {
+        String serviceName = serviceClass.getName();
+        ServiceBulkhead bulkhead = serviceBulkheadCache.get(serviceName);
+        if (bulkhead == null) {
+            bulkhead = serviceBulkheadCache.computeIfAbsent(serviceName, k -> new ServiceBulkhead(serviceClass,
+                    bulkheadConfigMap.getOrDefault(serviceName, BulkheadConfig.getDefault())));
+        }
+        return bulkhead;
+    }
+
+    /**
+     * 修改服务方法的准入限制，立即生效，也可以通过 JMX 修改
+     * @see DispatcherMetrics#setMethodLimit
+     */
+    public static void configureLimit(Class<?> serviceClass, String methodName, MethodLimit limit) throws Exception {
+        getPublicMethodWithAnnotationHtMethodName(serviceClass, methodName).getAdmissionController().setLimit(limit);
+    }
+
+    /**
+     * 清空服务类全部方法的结果缓存
+     */
+    public static void invalidateResultCache(Class<?> serviceClass) throws Exception {
+        for (MethodInvoker methodInvoker : getMethodInvokers(serviceClass).values()) {
+            if (methodInvoker.getResultCache() != null) {
+                methodInvoker.getResultCache().invalidateAll();
+            }
+        }
+    }
+
+    /**
+     * 清空服务方法的结果缓存
+     */
+    public static void invalidateResultCache(Class<?> serviceClass, String methodName) throws Exception {
+        ResultCache resultCache = getPublicMethodWithAnnotationHtMethodName(serviceClass, methodName).getResultCache();
+        if (resultCache != null) {
+            resultCache.invalidateAll();
+        }
+    }
+
+    /**
+     * 调用服务方法，返回结果对象
+     */
+    private static Result executeForResult(Class<?> serviceClass, String methodName, HashMap<String, Object> paramMap) throws Exception {
+        return execute(serviceClass, methodName, paramMap, (methodInvoker, serviceObject) -> methodInvoker.invoke(serviceObject, paramMap), r -> r);
+    }
+
+    /**
+     * 调用服务方法，统一处理异常、记录统计和日志
+     * 超出方法的并发数或每秒调用数上限时不执行，返回禁止结果，不计入方法的调用统计。
+     * 准入前先查结果缓存，命中时直接返回，不占用令牌和执行名额。
+     *
+     * @param invocation 调用方法并转换结果
+     * @param failConverter 异常时将禁止结果转为返回值
+     */
+    private static <T> T execute(Class<?> serviceClass, String methodName, HashMap<String, Object> paramMap,
+                                 Invocation<T> invocation, Function<Result, T> failConverter) throws Exception {
+        if (serviceClass == null) {
+            throw new Exception("服务类型为空");
+        }
+        boolean isLogSampled = metrics.isLogSampled();
+        if (isLogSampled) {
+            logger.info("开始方法 {}，接收到参数 paramMap: {}", methodName, paramMap);
+        }
+        long start = System.nanoTime();
+        MethodInvoker methodInvoker = null;
+        boolean isCounted = false;
+        boolean isError = true;
+        T result;
         try {
             Object serviceObject = getServiceObject(serviceClass);
-            Method method = getPublicMethodWithAnnotationHtMethodName(serviceClass, methodName);
-            Object[] paramArray = getParamArray(method, paramMap);
-            result = executeMethod(serviceObject, method, paramArray);
+            methodInvoker = getPublicMethodWithAnnotationHtMethodName(serviceClass, methodName);
+            T cached = invocation.lookup(methodInvoker);
+            if (cached != null) {
+                isCounted = true;
+                isError = false;
+                return cached;
+            }
+            AdmissionController admissionController = methodInvoker.getAdmissionController();
+            String rejection = admissionController.tryAcquire();
+            if (rejection != null) {
+                isError = false;
+                return failConverter.apply(Result.fail(rejection));
+            }
+            isCounted = true;
+            try {
+                result = invocation.invoke(methodInvoker, serviceObject);
+            } finally {
+                admissionController.release();
+            }
+            isError = false;
         } catch (Exception e) {
             logger.error("异常：{}", e.getMessage(), e);
-            result = Result.fail(e.getMessage());
+            result = failConverter.apply(Result.fail(e.getMessage()));
         } finally {
-            stopWatch.stop();
-            logger.info("结束调用方法 " + methodName + ", 耗时：{} ms", stopWatch.getLastTaskTimeMillis());
+            long elapsed = System.nanoTime() - start;
+            if (methodInvoker != null && isCounted) {
+                methodInvoker.getMetrics().record(elapsed, isError);
+            }
+            if (isLogSampled) {
+                logger.info("结束调用方法 {}, 耗时：{} ms", methodName, elapsed / 1000000);
+            }
         }
-        return result.getJsonString();
+        return result;
     }
 
+    /**
+     * 获取服务对象，不存在则创建并注入
+     * 并发首次调用时只有一个线程创建，其他线程等待创建完成；创建失败时不缓存，下次调用重新创建。
+     */
     private static Object getServiceObject(Class<?> serviceClass) throws Exception {
         String serviceName = serviceClass.getName();
-        if (!serviceObjectCache.containsKey(serviceName)) {
-            Object serviceObject = serviceClass.newInstance();
-            injectField(serviceClass, serviceObject);
-            serviceObjectCache.putIfAbsent(serviceName, serviceObject);
+        Object serviceObject = serviceObjectCache.get(serviceName);
+        if (serviceObject != null) {
+            return serviceObject;
+        }
+        try {
+            return serviceObjectCache.computeIfAbsent(serviceName, k -> {
+                try {
+                    Object newServiceObject = serviceClass.newInstance();
+                    injectField(serviceClass, newServiceObject);
+                    return newServiceObject;
+                } catch (Exception e) {
+                    throw new CacheLoadException(e);
+                }
+            });
+        } catch (CacheLoadException e) {
+            throw e.getCause();
         }
-        return serviceObjectCache.get(serviceName);
     }
 
     /**
-     * 注入 dao,model,logger
+     * 注入 dao,logger 等依赖
+     * @see DependencyRegistry
      */
     private static void injectField(Class<?> serviceClass, Object serviceObject) throws Exception {
-        Field[] fields = serviceClass.getDeclaredFields();
-        for (Field field : fields) {
-            String fieldName = field.getName();
-            Object value = null;
-            if (fieldName.contains("DAO")) {
-                value = DAOFactory.getDao(fieldName);
-            }
-            if (value != null && field.getType().isAssignableFrom(value.getClass())) {
-                field.setAccessible(true);
-                field.set(serviceObject, value);
-            }
+        InjectionPlan.getPlan(serviceClass).inject(serviceObject);
+    }
+
+    private static MethodInvoker getPublicMethodWithAnnotationHtMethodName(Class<?> serviceClass, String methodName) throws Exception {
+        String serviceName = serviceClass.getName();
+        MethodInvoker methodInvoker = getMethodInvokers(serviceClass).get(methodName);
+        if (methodInvoker == null) {
+            throw new Exception("类 " + serviceName + " 中方法  " + methodName + " 不存在，或者不是公有方法，或者没有 @HtMethodName 注解");
         }
+        return methodInvoker;
     }
 
-    private static Method getPublicMethodWithAnnotationHtMethodName(Class<?> serviceClass, String methodName) throws Exception {
+    /**
+     * 获取服务类的方法调用器，不存在则创建
+     * 并发首次调用时每个类只创建一次；创建失败时不缓存，下次调用重新创建。
+     */
+    private static HashMap<String, MethodInvoker> getMethodInvokers(Class<?> serviceClass) throws Exception {
         String serviceName = serviceClass.getName();
-        if (!servicePublicMethodCache.containsKey(serviceName)){
-            Method[] methods = serviceClass.getDeclaredMethods();
-            HashMap<String, Method> publicMethods = new HashMap<>();
-            for (Method method : methods) {
-                if (isPublicMethod(method) && method.isAnnotationPresent(MethodName.class)) {
-                    MethodName annotation = method.getAnnotation(MethodName.class);
-                    String name = annotation.value();
-                    if (publicMethods.containsKey(name)) {
-                        throw new Exception("类 " + serviceName + "中 @HtMethodName 标识的方法名 " + name + "重复");
-                    }
-                    publicMethods.put(name, method);
+        HashMap<String, MethodInvoker> methodInvokers = serviceMethodInvokerCache.get(serviceName);
+        if (methodInvokers != null) {
+            return methodInvokers;
+        }
+        try {
+            return serviceMethodInvokerCache.computeIfAbsent(serviceName, k -> {
+                try {
+                    return createMethodInvokers(serviceClass);
+                } catch (Exception e) {
+                    throw new CacheLoadException(e);
                 }
-            }
-            servicePublicMethodCache.putIfAbsent(serviceName, publicMethods);
+            });
+        } catch (CacheLoadException e) {
+            throw e.getCause();
         }
-        HashMap<String, Method> publicMethods = servicePublicMethodCache.get(serviceName);
-        if (!publicMethods.containsKey(methodName)) {
-            throw new Exception("类 " + serviceName + " 中方法  " + methodName + " 不存在，或者不是公有方法，或者没有 @HtMethodName 注解");
+    }
+
+    /**
+     * 创建服务类中全部 @MethodName 公有方法的调用器，方法名重复时抛出异常
+     */
+    private static HashMap<String, MethodInvoker> createMethodInvokers(Class<?> serviceClass) throws Exception {
+        String serviceName = serviceClass.getName();
+        Method[] methods = serviceClass.getDeclaredMethods();
+        HashMap<String, MethodInvoker> methodInvokers = new HashMap<>();
+        for (Method method : methods) {
+            if (isPublicMethod(method) && method.isAnnotationPresent(MethodName.class)) {
+                MethodName annotation = method.getAnnotation(MethodName.class);
+                String name = annotation.value();
+                if (methodInvokers.containsKey(name)) {
+                    throw new Exception("类 " + serviceName + "中 @HtMethodName 标识的方法名 " + name + "重复");
+                }
+                methodInvokers.put(name, MethodInvoker.create(serviceClass, method));
+            }
         }
-        return publicMethods.get(methodName);
+        return methodInvokers;
     }
 
     private static boolean isPublicMethod(Method m) {
         return Modifier.isPublic(m.getModifiers());
     }
 
-    private static Object[] getParamArray(Method method, HashMap<String, Object> paramMap) throws Exception {
-        Parameter[] parameters = method.getParameters();
-        Object[] paramArray = new Object[parameters.length];
-        if (parameters.length == 0 || paramMap == null || paramMap.isEmpty()) {
-            return paramArray;
-        }
-        for (int i = 0; i < parameters.length; i++) {
-            Parameter param = parameters[i];
-            String paramName = param.getName();
-            if ("arg0".equals(paramName)) {
-                throw new Exception("反射获取到的方法 " + method.getName() + " 入参名称是 arg0");
-            }
-            Object paramObject = getParamFromMap(param, paramMap);
-            paramArray[i] = paramObject;
+    /**
+     * 调用服务方法并转换结果
+     */
+    private interface Invocation<T> {
+        T invoke(MethodInvoker methodInvoker, Object serviceObject) throws Exception;
+
+        /**
+         * 准入前查找缓存的结果，没有时返回 null
+         */
+        default T lookup(MethodInvoker methodInvoker) {
+            return null;
         }
-        return paramArray;
     }
 
     /**
-     * 从主程序传来的 paramMap 中获取方法入参
-     * paramMap 中包含 dbo
+     * 返回 json 字符串的调用，方法有 @CacheableResult 注解时使用结果缓存
+     * 准入前按参数查找已缓存的结果；未命中时在准入后调用，同一 key 并发未命中时只调用一次方法。
      */
-    private static Object getParamFromMap(Parameter param, HashMap<String, Object> paramMap) throws Exception {
-        Class<?> paramType = param.getType();
-        String paramClassName = paramType.getName();
-        String paramName = param.getName();
+    private static class JsonInvocation implements Invocation<String> {
+
+        private final HashMap<String, Object> paramMap;
+        /**
+         * 缓存的 key，方法没有结果缓存或参数无法序列化时为 null
+         */
+        private String key;
 
-        if (param.isAnnotationPresent(ParamHashMap.class)) {
-            if (!paramClassName.equals(HashMap.class.getName())) {
-                throw new Exception("方法入参 " + paramName + " 的类型不是 HashMap");
+        JsonInvocation(HashMap<String, Object> paramMap) {
+            this.paramMap = paramMap;
+        }
+
+        @Override
+        public String lookup(MethodInvoker methodInvoker) {
+            ResultCache resultCache = methodInvoker.getResultCache();
+            if (resultCache == null) {
+                return null;
             }
-            return new HashMap<String, Object>(paramMap);
-        } else if (param.isAnnotationPresent(ParamDto.class)) {
-            return JavaBeanUtil.mapToBean(paramMap, paramType, true);
+            key = ResultCache.key(paramMap);
+            return key == null ? null : resultCache.getIfPresent(key);
         }
 
-        if (paramMap.containsKey(paramName)) {
-            Object obj = paramMap.get(paramName);
-            if (paramType.isAssignableFrom(obj.getClass())) {
-                return obj;
+        @Override
+        public String invoke(MethodInvoker methodInvoker, Object serviceObject) throws Exception {
+            ResultCache resultCache = methodInvoker.getResultCache();
+            if (resultCache == null || key == null) {
+                return methodInvoker.invoke(serviceObject, paramMap).getJsonString();
             }
+            return resultCache.get(key, () -> methodInvoker.invoke(serviceObject, paramMap));
         }
-        return null;
     }
 
-    @SuppressWarnings("unchecked")
-    private static Result executeMethod(Object serviceObject, Method method, Object[] paramArray) throws Exception {
-        try {
-            return (Result) method.invoke(serviceObject, paramArray);
-        } catch (InvocationTargetException ie) {
-            throw (Exception) ie.getTargetException();
+    /**
+     * 在 computeIfAbsent 中传递创建缓存时的异常
+     */
+    private static class CacheLoadException extends RuntimeException {
+
+        CacheLoadException(Exception cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized Exception getCause() {
+            return (Exception) super.getCause();
         }
     }
 
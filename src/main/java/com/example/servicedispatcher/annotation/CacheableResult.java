@@ -0,0 +1,32 @@
+package com.example.servicedispatcher.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标识 @MethodName 方法的返回结果可以缓存
+ * 只用于相同参数总是返回相同结果、没有副作用的查询方法。缓存的是结果的 json 字符串，
+ * key 由服务类、方法名和参数的规范化 json 组成。只缓存通过结果，方法抛出异常或返回其他结果时不缓存；参数无法序列化时本次调用不使用缓存。
+ * 只对返回 json 字符串的入口 execute、executeAsync 生效，写入 Writer、OutputStream 的入口不使用缓存。
+ * 命中缓存的调用不经过 @MethodName 的准入限制，不占用令牌和执行名额；未命中时先准入再调用方法。
+ *
+ * @see com.example.servicedispatcher.cache.ResultCache
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CacheableResult {
+
+    /**
+     * 最多缓存的结果数
+     */
+    int maximumSize() default 1000;
+
+    /**
+     * 结果写入后的有效时间，单位秒
+     */
+    long expireAfterWriteSeconds() default 60;
+}
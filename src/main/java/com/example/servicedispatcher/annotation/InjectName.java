@@ -0,0 +1,24 @@
+package com.example.servicedispatcher.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标识服务类属性按名称注入
+ * 按名称找不到依赖时，创建服务对象失败。
+ *
+ * @see com.example.servicedispatcher.inject.DependencyRegistry
+ */
+@Target({ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface InjectName {
+
+    /**
+     * 依赖的名称
+     */
+    String value();
+}
@@ -0,0 +1,18 @@
+package com.example.servicedispatcher.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标识服务类属性按类型注入
+ * 按类型找不到依赖时，创建服务对象失败。没有注入注解、也不是 Logger 或 dao 的属性不会被注入，服务自己设置的值不会被覆盖。
+ *
+ * @see com.example.servicedispatcher.inject.DependencyRegistry
+ */
+@Target({ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface InjectType {}
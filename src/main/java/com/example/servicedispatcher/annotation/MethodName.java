@@ -6,6 +6,11 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * 标识可以被主程序调用的服务方法
+ * 可以限制方法的并发数和每秒调用数，见 {@link com.example.servicedispatcher.limit.AdmissionController}。
+ * 方法有 @CacheableResult 注解时，命中结果缓存的调用不受限制。
+ */
 @Target({ElementType.METHOD})
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
@@ -15,4 +20,20 @@ public @interface MethodName {
      * 方法名称
      */
     String value();
+
+    /**
+     * 同时执行的调用数上限，0表示不限制
+     */
+    int maxConcurrency() default 0;
+
+    /**
+     * 每秒调用数上限，允许一秒内的突发调用，0表示不限制
+     */
+    double permitsPerSecond() default 0;
+
+    /**
+     * 超出上限时最多等待的时间，单位毫秒，0表示直接拒绝
+     * 等待超时或被拒绝时返回禁止结果。
+     */
+    long maxWaitMillis() default 0;
 }
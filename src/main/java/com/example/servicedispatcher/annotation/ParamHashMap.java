@@ -8,8 +8,17 @@ import java.lang.annotation.Target;
 
 /**
  * 标识方法入参的类型是不是 HashMap
+ * 入参类型可以是 HashMap 或 Map。默认传入主程序 paramMap 的副本。
  */
 @Target({ElementType.PARAMETER})
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
-public @interface ParamHashMap {}
+public @interface ParamHashMap {
+
+    /**
+     * 是否传入写时复制的视图，不复制 paramMap
+     * 视图直接读取主程序的 paramMap，服务第一次修改时才复制，修改不会影响主程序。
+     * 入参类型必须是 Map。
+     */
+    boolean copyOnWrite() default false;
+}
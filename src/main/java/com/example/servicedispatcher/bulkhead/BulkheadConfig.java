@@ -0,0 +1,100 @@
+package com.example.servicedispatcher.bulkhead;
+
+/**
+ * 服务异步线程池配置
+ * 未单独配置的服务使用默认配置，默认值可通过系统属性修改：
+ * servicedispatcher.async.threads、servicedispatcher.async.queueCapacity、servicedispatcher.async.timeoutMillis、
+ * servicedispatcher.async.virtualThreads。
+ */
+public class BulkheadConfig {
+
+    /**
+     * 线程池和队列已满时的处理方式
+     */
+    public enum RejectPolicy {
+        /**
+         * 直接返回禁止结果，不执行服务方法
+         */
+        FAIL,
+        /**
+         * 由调用线程同步执行
+         */
+        CALLER_RUNS
+    }
+
+    /**
+     * 执行方式
+     */
+    public enum ExecutionMode {
+        /**
+         * 固定数量的平台线程，超出的调用在队列中等待
+         */
+        THREAD_POOL,
+        /**
+         * 每次调用一个虚拟线程，适合阻塞在数据库访问上的服务
+         * 同时执行的调用数上限为 threads，不排队，超出时按拒绝策略处理。
+         * 需要 JDK 21 及以上，低版本 JDK 上按 THREAD_POOL 执行。
+         */
+        VIRTUAL_THREAD
+    }
+
+    private static final BulkheadConfig DEFAULT = new BulkheadConfig(
+            Integer.getInteger("servicedispatcher.async.threads", Runtime.getRuntime().availableProcessors()),
+            Integer.getInteger("servicedispatcher.async.queueCapacity", 256),
+            Long.getLong("servicedispatcher.async.timeoutMillis", 0L),
+            RejectPolicy.FAIL,
+            Boolean.getBoolean("servicedispatcher.async.virtualThreads") ? ExecutionMode.VIRTUAL_THREAD : ExecutionMode.THREAD_POOL);
+
+    private final int threads;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+    private final RejectPolicy rejectPolicy;
+    private final ExecutionMode executionMode;
+
+    /**
+     * 使用线程池执行
+     * @see #BulkheadConfig(int, int, long, RejectPolicy, ExecutionMode)
+     */
+    public BulkheadConfig(int threads, int queueCapacity, long timeoutMillis, RejectPolicy rejectPolicy) {
+        this(threads, queueCapacity, timeoutMillis, rejectPolicy, ExecutionMode.THREAD_POOL);
+    }
+
+    /**
+     * @param threads 线程数上限，虚拟线程模式下为同时执行的调用数上限
+     * @param queueCapacity 等待队列长度上限，虚拟线程模式下不使用
+     * @param timeoutMillis 超时时间，单位毫秒，0表示不限时
+     * @param rejectPolicy 线程池和队列已满时的处理方式
+     * @param executionMode 执行方式
+     */
+    public BulkheadConfig(int threads, int queueCapacity, long timeoutMillis, RejectPolicy rejectPolicy, ExecutionMode executionMode) {
+        this.threads = Math.max(threads, 1);
+        this.queueCapacity = Math.max(queueCapacity, 1);
+        this.timeoutMillis = Math.max(timeoutMillis, 0);
+        this.rejectPolicy = rejectPolicy == null ? RejectPolicy.FAIL : rejectPolicy;
+        this.executionMode = executionMode == null ? ExecutionMode.THREAD_POOL : executionMode;
+    }
+
+    public static BulkheadConfig getDefault() {
+        return DEFAULT;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public RejectPolicy getRejectPolicy() {
+        return rejectPolicy;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+}
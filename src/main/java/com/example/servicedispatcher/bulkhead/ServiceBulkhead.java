@@ -0,0 +1,214 @@
+package com.example.servicedispatcher.bulkhead;
+
+import com.example.servicedispatcher.metrics.BulkheadMetrics;
+import com.example.servicedispatcher.metrics.DispatcherMetrics;
+import com.example.servicedispatcher.result.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 单个服务的异步线程池
+ *
+ * 每个服务类使用独立的线程池，线程数和队列长度都有上限，一个服务变慢只会占满自己的线程池，不影响其他服务。
+ * 线程池和队列已满时按配置直接返回禁止结果或由调用线程执行。
+ * 虚拟线程模式下每次调用一个虚拟线程，用许可数限制同时执行的调用数；JDK 不支持虚拟线程时使用线程池。
+ * 超时由共用的定时线程检查，超时后返回禁止结果；已在执行的服务方法不会被中断，仍在队列中的任务不再执行。
+ */
+public class ServiceBulkhead {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceBulkhead.class);
+
+    /**
+     * 检查超时的定时线程，全部服务共用
+     * 任务完成后取消定时，取消的定时立即从队列中移除。
+     */
+    private static final ScheduledThreadPoolExecutor timeoutScheduler = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "dispatcher-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        timeoutScheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    private final String serviceName;
+    private final BulkheadConfig config;
+    private final ExecutorService executor;
+    /**
+     * 虚拟线程模式下同时执行的调用数许可，线程池模式下为 null
+     */
+    private final Semaphore permits;
+    private final BulkheadMetrics metrics;
+
+    public ServiceBulkhead(Class<?> serviceClass, BulkheadConfig config) {
+        this(serviceClass, config, VirtualThreads::newVirtualThreadPerTaskExecutor);
+    }
+
+    /**
+     * @param virtualExecutorFactory 创建虚拟线程执行器，返回 null 表示不支持虚拟线程；测试中用于模拟不同版本的 JDK
+     */
+    ServiceBulkhead(Class<?> serviceClass, BulkheadConfig config, Supplier<ExecutorService> virtualExecutorFactory) {
+        this.serviceName = serviceClass.getName();
+        this.config = config;
+        ExecutorService virtualExecutor = null;
+        if (config.getExecutionMode() == BulkheadConfig.ExecutionMode.VIRTUAL_THREAD) {
+            virtualExecutor = virtualExecutorFactory.get();
+            if (virtualExecutor == null) {
+                logger.warn("当前 JDK 不支持虚拟线程，服务 {} 使用线程池执行", serviceName);
+            }
+        }
+        if (virtualExecutor != null) {
+            Semaphore semaphore = new Semaphore(config.getThreads());
+            this.executor = virtualExecutor;
+            this.permits = semaphore;
+            this.metrics = DispatcherMetrics.getInstance().createBulkheadMetrics(serviceName, config.getThreads(),
+                    () -> config.getThreads() - semaphore.availablePermits(), () -> 0, 0);
+        } else {
+            ThreadPoolExecutor pool = newThreadPool(serviceClass, config);
+            this.executor = pool;
+            this.permits = null;
+            this.metrics = DispatcherMetrics.getInstance().createBulkheadMetrics(serviceName, config.getThreads(),
+                    pool::getActiveCount, () -> pool.getQueue().size(), config.getQueueCapacity());
+        }
+    }
+
+    private static ThreadPoolExecutor newThreadPool(Class<?> serviceClass, BulkheadConfig config) {
+        String threadNamePrefix = "dispatcher-" + serviceClass.getSimpleName() + "-";
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(config.getThreads(), config.getThreads(), 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, threadNamePrefix + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        }, new ThreadPoolExecutor.AbortPolicy());
+        // 空闲的服务不占用线程
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * 提交任务，返回 json 结果
+     * 被拒绝或超时时，结果为禁止结果的 json；任务抛出的异常通过 CompletableFuture 传递。
+     *
+     * @throws RejectedExecutionException 线程池已停止，比如已被新配置的线程池替换，调用方应改用当前的线程池
+     */
+    public CompletableFuture<String> submit(Callable<String> task) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        Runnable runnable = () -> run(task, future, null);
+        if (permits != null) {
+            if (!permits.tryAcquire()) {
+                return reject(runnable, future);
+            }
+            try {
+                executor.execute(() -> run(task, future, permits));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                if (executor.isShutdown()) {
+                    throw e;
+                }
+                return reject(runnable, future);
+            }
+        } else {
+            try {
+                executor.execute(runnable);
+            } catch (RejectedExecutionException e) {
+                if (executor.isShutdown()) {
+                    throw e;
+                }
+                return reject(runnable, future);
+            }
+        }
+        metrics.recordSubmitted();
+        long timeoutMillis = config.getTimeoutMillis();
+        if (timeoutMillis > 0 && !future.isDone()) {
+            ScheduledFuture<?> timeout = timeoutScheduler.schedule(() -> {
+                if (future.complete(Result.fail("服务调用超时").getJsonString())) {
+                    metrics.recordTimeout();
+                }
+            }, timeoutMillis, TimeUnit.MILLISECONDS);
+            future.whenComplete((r, e) -> timeout.cancel(false));
+        }
+        return future;
+    }
+
+    /**
+     * 执行任务并设置结果
+     * 有许可时先归还许可再设置结果，调用方拿到结果后立即再次提交时不会因许可未归还被拒绝。
+     */
+    private static void run(Callable<String> task, CompletableFuture<String> future, Semaphore permits) {
+        String result = null;
+        Throwable error = null;
+        try {
+            // 等待期间已超时，不再执行
+            if (!future.isDone()) {
+                result = task.call();
+            }
+        } catch (Throwable e) {
+            error = e;
+        } finally {
+            if (permits != null) {
+                permits.release();
+            }
+        }
+        if (error != null) {
+            future.completeExceptionally(error);
+        } else {
+            future.complete(result);
+        }
+    }
+
+    private CompletableFuture<String> reject(Runnable runnable, CompletableFuture<String> future) {
+        metrics.recordRejected();
+        if (config.getRejectPolicy() == BulkheadConfig.RejectPolicy.CALLER_RUNS && !executor.isShutdown()) {
+            runnable.run();
+        } else {
+            future.complete(Result.fail("服务繁忙，请稍后重试").getJsonString());
+        }
+        return future;
+    }
+
+    /**
+     * 是否使用虚拟线程执行
+     */
+    public boolean isVirtualThread() {
+        return permits != null;
+    }
+
+    /**
+     * 不再接收新任务，已提交的任务继续执行
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public BulkheadConfig getConfig() {
+        return config;
+    }
+
+    public BulkheadMetrics getMetrics() {
+        return metrics;
+    }
+}
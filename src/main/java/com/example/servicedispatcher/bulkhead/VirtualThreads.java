@@ -0,0 +1,57 @@
+package com.example.servicedispatcher.bulkhead;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程支持
+ * 项目按 Java 8 编译，通过反射调用 JDK 21 的 Executors.newVirtualThreadPerTaskExecutor，运行在低版本 JDK 上时不可用。
+ */
+public class VirtualThreads {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor 方法，不支持虚拟线程时为 null
+     */
+    private static final Method newVirtualThreadPerTaskExecutor = findFactoryMethod();
+
+    private VirtualThreads() {}
+
+    /**
+     * 当前 JDK 是否支持虚拟线程
+     */
+    public static boolean isSupported() {
+        return newVirtualThreadPerTaskExecutor != null;
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的执行器，不支持虚拟线程时返回 null
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (newVirtualThreadPerTaskExecutor == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null);
+        } catch (Exception e) {
+            logger.warn("创建虚拟线程执行器失败：{}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private static Method findFactoryMethod() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            // JDK 19、20 中为预览特性，未开启预览时调用会抛出异常
+            ((ExecutorService) method.invoke(null)).shutdown();
+            return method;
+        } catch (Exception | LinkageError e) {
+            return null;
+        }
+    }
+}
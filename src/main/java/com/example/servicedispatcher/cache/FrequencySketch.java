@@ -0,0 +1,81 @@
+package com.example.servicedispatcher.cache;
+
+/**
+ * 近似的访问频率统计，用于缓存准入
+ *
+ * Count-Min Sketch：4行计数器，每个 key 在每行对应一个计数器，频率取4个计数器的最小值，计数上限为15。
+ * 累计记录次数达到样本数后所有计数器减半，使旧的访问逐渐失去权重。
+ * 为了不加锁，计数器的并发更新可能丢失少量计数，对准入判断的影响可以忽略。
+ */
+class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x97cb3127, 0xb4c8c1c9, 0x6a09e667, 0xbb67ae85};
+
+    private final int[] table;
+    private final int widthMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param maximumSize 缓存条数上限
+     */
+    FrequencySketch(int maximumSize) {
+        int width = Integer.highestOneBit(Math.max(maximumSize, 16) * 2 - 1) * 2;
+        this.table = new int[DEPTH * width];
+        this.widthMask = width - 1;
+        this.sampleSize = Math.max(maximumSize, 16) * 10;
+    }
+
+    /**
+     * 记录一次访问
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            int index = indexOf(hash, i);
+            if (table[index] < MAX_COUNT) {
+                table[index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * 访问频率的估计值
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < DEPTH; i++) {
+            frequency = Math.min(frequency, table[indexOf(hash, i)]);
+        }
+        return frequency;
+    }
+
+    /**
+     * 所有计数器减半
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] >>>= 1;
+        }
+        additions = additions >>> 1;
+    }
+
+    private int indexOf(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+        h ^= h >>> 16;
+        return row * (widthMask + 1) + (h & widthMask);
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x85ebca6b;
+        return h ^ (h >>> 13);
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.servicedispatcher.cache;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.serializer.SerializerFeature;
+import com.example.servicedispatcher.metrics.DispatcherMetrics;
+import com.example.servicedispatcher.metrics.ResultCacheMetrics;
+import com.example.servicedispatcher.result.Result;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 单个服务方法的结果缓存
+ *
+ * 条数有上限，结果写入后超过有效时间即失效。
+ * 超出上限时，按 TinyLFU 的方式准入：比较新结果与最久未访问结果的访问频率，频率高的留下，偶发的参数不会挤掉常用的结果。
+ * 同一个 key 并发未命中时只有一个线程调用方法，其他线程等待同一个结果；方法抛出异常时不缓存，等待的线程收到同一个异常。
+ * 只缓存通过的结果，提示、选择、禁止结果（比如下游暂时不可用时返回的禁止结果）交给本次等待的线程后即丢弃，下次调用重新执行方法。
+ * 命中时不加锁，访问顺序在锁空闲时更新，锁被占用时跳过本次更新。
+ */
+public class ResultCache {
+
+    private final int maximumSize;
+    private final long expireAfterWriteNanos;
+    /**
+     * key是参数的规范化 json，value是缓存的结果
+     */
+    private final ConcurrentHashMap<String, Node> data = new ConcurrentHashMap<>();
+    /**
+     * 已完成的结果，按访问顺序排列，由 lock 保护
+     */
+    private final LinkedHashMap<String, Node> accessOrder = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final ResultCacheMetrics metrics;
+
+    /**
+     * @param maximumSize 最多缓存的结果数
+     * @param expireAfterWriteSeconds 结果写入后的有效时间，单位秒
+     */
+    public ResultCache(String serviceName, String methodName, int maximumSize, long expireAfterWriteSeconds) {
+        this.maximumSize = Math.max(maximumSize, 1);
+        this.expireAfterWriteNanos = TimeUnit.SECONDS.toNanos(Math.max(expireAfterWriteSeconds, 1));
+        this.sketch = new FrequencySketch(this.maximumSize);
+        this.metrics = DispatcherMetrics.getInstance().createResultCacheMetrics(serviceName, methodName, this.maximumSize, data::size);
+    }
+
+    /**
+     * 参数的规范化 json，map 的属性按名称排序，相同内容的参数得到相同的 key
+     *
+     * @return 参数中有无法序列化的对象时返回 null，本次调用不使用缓存
+     */
+    public static String key(HashMap<String, Object> paramMap) {
+        if (paramMap == null || paramMap.isEmpty()) {
+            return "";
+        }
+        try {
+            return JSON.toJSONString(paramMap, SerializerFeature.MapSortField, SerializerFeature.SortField);
+        } catch (RuntimeException | StackOverflowError e) {
+            return null;
+        }
+    }
+
+    /**
+     * 获取缓存的结果 json，未命中或已失效时调用 loader 获取，结果通过时缓存
+     */
+    public String get(String key, Callable<Result> loader) throws Exception {
+        sketch.increment(key);
+        Node node = data.get(key);
+        if (node != null && node.isExpired(System.nanoTime())) {
+            if (data.remove(key, node)) {
+                metrics.recordEviction();
+                removeFromAccessOrder(key, node);
+            }
+            node = null;
+        }
+        if (node == null) {
+            Node newNode = new Node();
+            node = data.putIfAbsent(key, newNode);
+            if (node == null) {
+                metrics.recordMiss();
+                return load(key, newNode, loader);
+            }
+        }
+        metrics.recordHit();
+        if (node.future.isDone() && lock.tryLock()) {
+            try {
+                accessOrder.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return await(node);
+    }
+
+    /**
+     * 获取已缓存且未失效的结果 json，没有时返回 null，不调用方法
+     * 命中时与 {@link #get} 的命中相同，计入访问频率和命中次数；没有时不计入，之后调用 get 时再计入。
+     */
+    public String getIfPresent(String key) {
+        Node node = data.get(key);
+        if (node == null || !node.future.isDone() || node.future.isCompletedExceptionally() || node.isExpired(System.nanoTime())) {
+            return null;
+        }
+        sketch.increment(key);
+        metrics.recordHit();
+        if (lock.tryLock()) {
+            try {
+                accessOrder.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return node.future.getNow(null);
+    }
+
+    /**
+     * 清空缓存，正在调用的方法返回后结果不再缓存
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            data.clear();
+            accessOrder.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    private String load(String key, Node node, Callable<Result> loader) throws Exception {
+        String value;
+        try {
+            Result result = loader.call();
+            value = result.getJsonString();
+            if (!result.isSuccess()) {
+                data.remove(key, node);
+                node.future.complete(value);
+                return value;
+            }
+        } catch (Exception | Error e) {
+            data.remove(key, node);
+            node.future.completeExceptionally(e);
+            throw e;
+        }
+        node.expireAt = System.nanoTime() + expireAfterWriteNanos;
+        node.future.complete(value);
+        admit(key, node);
+        return value;
+    }
+
+    /**
+     * 加入访问顺序，超出上限时淘汰
+     * 先淘汰已失效的结果，再比较新结果与最久未访问结果的访问频率，淘汰频率低的一方。
+     */
+    private void admit(String key, Node node) {
+        lock.lock();
+        try {
+            // 加载期间已被清空
+            if (data.get(key) != node) {
+                return;
+            }
+            accessOrder.put(key, node);
+            long now = System.nanoTime();
+            Iterator<Map.Entry<String, Node>> iterator = accessOrder.entrySet().iterator();
+            while (accessOrder.size() > maximumSize && iterator.hasNext()) {
+                Map.Entry<String, Node> victim = iterator.next();
+                String victimKey = victim.getKey();
+                if (victimKey.equals(key)) {
+                    continue;
+                }
+                String evictKey = victimKey;
+                Node evictNode = victim.getValue();
+                if (!evictNode.isExpired(now) && sketch.frequency(key) <= sketch.frequency(victimKey)) {
+                    evictKey = key;
+                    evictNode = node;
+                }
+                if (evictKey.equals(victimKey)) {
+                    iterator.remove();
+                } else {
+                    accessOrder.remove(key);
+                }
+                if (data.remove(evictKey, evictNode)) {
+                    metrics.recordEviction();
+                }
+                if (evictNode == node) {
+                    return;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeFromAccessOrder(String key, Node node) {
+        lock.lock();
+        try {
+            accessOrder.remove(key, node);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String await(Node node) throws Exception {
+        try {
+            return node.future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 缓存的结果，加载完成前为未完成的 future
+     */
+    private static class Node {
+
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+        /**
+         * 失效时间，System.nanoTime 的值，加载完成前不失效
+         */
+        private volatile long expireAt = Long.MAX_VALUE;
+
+        boolean isExpired(long now) {
+            return expireAt != Long.MAX_VALUE && now - expireAt >= 0;
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package com.example.servicedispatcher.dao;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DAOFactory {
 
-    private static HashMap<String, Object> daoCache = new HashMap<>();
+    private static ConcurrentHashMap<String, Object> daoCache = new ConcurrentHashMap<>();
 
     static {
         daoCache.put("userDAO", new UserDAO());
@@ -13,4 +13,11 @@ public class DAOFactory {
     public static Object getDao(String daoName) {
         return daoCache.get(daoName);
     }
+
+    /**
+     * 注册dao，同名的dao会被替换
+     */
+    public static void register(String daoName, Object dao) {
+        daoCache.put(daoName, dao);
+    }
 }
@@ -0,0 +1,20 @@
+package com.example.servicedispatcher.inject;
+
+/**
+ * 依赖提供者，比如从 Spring 容器中获取
+ * 实现类必须是线程安全的。
+ *
+ * @see DependencyRegistry#addProvider
+ */
+public interface DependencyProvider {
+
+    /**
+     * 获取依赖
+     *
+     * @param type 属性类型
+     * @param name 依赖名称，有 @InjectName 注解时为注解中的名称，否则为属性名
+     * @param qualified 是否按 @InjectName 注解的名称获取
+     * @return 依赖对象，不能提供时返回 null
+     */
+    Object getDependency(Class<?> type, String name, boolean qualified);
+}
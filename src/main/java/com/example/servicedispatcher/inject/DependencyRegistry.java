@@ -0,0 +1,111 @@
+package com.example.servicedispatcher.inject;
+
+import com.example.servicedispatcher.dao.DAOFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 服务类依赖注册表，线程安全
+ *
+ * 查找顺序：
+ * 1. 有 @InjectName 注解时按名称查找：按名称注册的依赖、依赖提供者、DAOFactory，找不到时创建服务对象失败；
+ * 2. 属性类型为 slf4j Logger 时，注入以服务类命名的日志；
+ * 3. 按属性类型注册的依赖，类型需完全相同；
+ * 4. 依赖提供者按属性类型和属性名查找；
+ * 5. 属性名包含 DAO 时，按属性名从 DAOFactory 获取，与原有的注入方式兼容。
+ * 2-5 只用于有 @InjectType 注解、Logger 类型和属性名包含 DAO 的属性，其他属性不注入。
+ * 有 @InjectType 注解的属性找不到依赖时创建服务对象失败，Logger 和 dao 属性找不到依赖或类型不符时不注入。
+ */
+public class DependencyRegistry {
+
+    /**
+     * 按名称注册的依赖，比如配置项
+     */
+    private static final ConcurrentHashMap<String, Object> namedDependencies = new ConcurrentHashMap<>();
+    /**
+     * 按类型注册的依赖
+     */
+    private static final ConcurrentHashMap<Class<?>, Object> typedDependencies = new ConcurrentHashMap<>();
+    /**
+     * 依赖提供者，按添加顺序查找
+     */
+    private static final CopyOnWriteArrayList<DependencyProvider> providers = new CopyOnWriteArrayList<>();
+
+    private DependencyRegistry() {}
+
+    /**
+     * 按名称注册依赖，同名的依赖会被替换
+     */
+    public static void register(String name, Object dependency) {
+        namedDependencies.put(name, dependency);
+    }
+
+    /**
+     * 按类型注册依赖，同类型的依赖会被替换
+     */
+    public static <T> void register(Class<T> type, T dependency) {
+        typedDependencies.put(type, dependency);
+    }
+
+    public static void unregister(String name) {
+        namedDependencies.remove(name);
+    }
+
+    public static void unregister(Class<?> type) {
+        typedDependencies.remove(type);
+    }
+
+    /**
+     * 添加依赖提供者，比如 {@link SpringDependencyProvider}
+     */
+    public static void addProvider(DependencyProvider provider) {
+        providers.addIfAbsent(provider);
+    }
+
+    public static void removeProvider(DependencyProvider provider) {
+        providers.remove(provider);
+    }
+
+    /**
+     * 按名称查找
+     */
+    static Object resolveByName(Class<?> type, String name) {
+        Object dependency = namedDependencies.get(name);
+        if (dependency != null) {
+            return dependency;
+        }
+        for (DependencyProvider provider : providers) {
+            dependency = provider.getDependency(type, name, true);
+            if (dependency != null) {
+                return dependency;
+            }
+        }
+        return DAOFactory.getDao(name);
+    }
+
+    /**
+     * 按类型查找，找不到时按属性名兼容原有的dao注入
+     */
+    static Object resolveByType(Class<?> serviceClass, Class<?> type, String fieldName) {
+        if (type == Logger.class) {
+            return LoggerFactory.getLogger(serviceClass);
+        }
+        Object dependency = typedDependencies.get(type);
+        if (dependency != null) {
+            return dependency;
+        }
+        for (DependencyProvider provider : providers) {
+            dependency = provider.getDependency(type, fieldName, false);
+            if (dependency != null) {
+                return dependency;
+            }
+        }
+        if (fieldName.contains("DAO")) {
+            return DAOFactory.getDao(fieldName);
+        }
+        return null;
+    }
+}
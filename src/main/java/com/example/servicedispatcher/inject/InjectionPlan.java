@@ -0,0 +1,120 @@
+package com.example.servicedispatcher.inject;
+
+import com.example.servicedispatcher.annotation.InjectName;
+import com.example.servicedispatcher.annotation.InjectType;
+import org.slf4j.Logger;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 服务类的注入计划
+ *
+ * 每个服务类只分析一次属性，缓存需要注入的属性；创建服务对象时按计划从 {@link DependencyRegistry} 查找依赖并设置。
+ * 需要注入的属性：有 @InjectName、@InjectType 注解的属性、Logger 类型的属性、属性名包含 DAO 的属性。
+ * 其他属性即使能按类型找到依赖也不注入，避免覆盖服务自己设置的值。静态和 final 属性不注入。
+ */
+public class InjectionPlan {
+
+    /**
+     * key是服务类，value是注入计划
+     */
+    private static final ConcurrentHashMap<Class<?>, InjectionPlan> planCache = new ConcurrentHashMap<>();
+
+    private final Class<?> serviceClass;
+    private final InjectionPoint[] injectionPoints;
+
+    private InjectionPlan(Class<?> serviceClass, InjectionPoint[] injectionPoints) {
+        this.serviceClass = serviceClass;
+        this.injectionPoints = injectionPoints;
+    }
+
+    /**
+     * 获取服务类的注入计划，不存在则创建
+     */
+    public static InjectionPlan getPlan(Class<?> serviceClass) {
+        InjectionPlan plan = planCache.get(serviceClass);
+        if (plan == null) {
+            plan = planCache.computeIfAbsent(serviceClass, InjectionPlan::createPlan);
+        }
+        return plan;
+    }
+
+    private static InjectionPlan createPlan(Class<?> serviceClass) {
+        List<InjectionPoint> injectionPoints = new ArrayList<>();
+        for (Field field : serviceClass.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+                continue;
+            }
+            InjectName injectName = field.getAnnotation(InjectName.class);
+            boolean isRequired = injectName != null || field.isAnnotationPresent(InjectType.class);
+            if (!isRequired && !isImplicitlyInjected(field)) {
+                continue;
+            }
+            field.setAccessible(true);
+            injectionPoints.add(new InjectionPoint(field, injectName == null ? null : injectName.value(), isRequired));
+        }
+        return new InjectionPlan(serviceClass, injectionPoints.toArray(new InjectionPoint[0]));
+    }
+
+    /**
+     * 没有注解时也注入的属性，与原有的注入方式一致
+     */
+    private static boolean isImplicitlyInjected(Field field) {
+        return field.getType() == Logger.class || field.getName().contains("DAO");
+    }
+
+    /**
+     * 注入依赖
+     */
+    public void inject(Object serviceObject) throws Exception {
+        for (InjectionPoint injectionPoint : injectionPoints) {
+            Field field = injectionPoint.field;
+            Class<?> type = field.getType();
+            Object value;
+            if (injectionPoint.qualifier != null) {
+                value = DependencyRegistry.resolveByName(type, injectionPoint.qualifier);
+                if (value == null || !type.isInstance(value)) {
+                    throw new Exception("类 " + serviceClass.getName() + " 中属性 " + field.getName() + " 按名称 "
+                            + injectionPoint.qualifier + " 找不到类型为 " + type.getName() + " 的依赖");
+                }
+            } else {
+                value = DependencyRegistry.resolveByType(serviceClass, type, field.getName());
+                if (value == null || !type.isInstance(value)) {
+                    if (injectionPoint.isRequired) {
+                        throw new Exception("类 " + serviceClass.getName() + " 中属性 " + field.getName() + " 按类型找不到类型为 "
+                                + type.getName() + " 的依赖");
+                    }
+                    continue;
+                }
+            }
+            field.set(serviceObject, value);
+        }
+    }
+
+    /**
+     * 需要注入的属性
+     */
+    private static class InjectionPoint {
+
+        private final Field field;
+        /**
+         * @InjectName 注解中的名称，没有注解时为 null
+         */
+        private final String qualifier;
+        /**
+         * 有注入注解，找不到依赖时创建服务对象失败
+         */
+        private final boolean isRequired;
+
+        InjectionPoint(Field field, String qualifier, boolean isRequired) {
+            this.field = field;
+            this.qualifier = qualifier;
+            this.isRequired = isRequired;
+        }
+    }
+}
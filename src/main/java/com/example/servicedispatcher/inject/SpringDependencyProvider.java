@@ -0,0 +1,33 @@
+package com.example.servicedispatcher.inject;
+
+import org.springframework.context.ApplicationContext;
+
+/**
+ * 从 Spring 容器中获取依赖
+ * 按名称注入时获取同名的 bean；按类型注入时获取该类型唯一的 bean，有多个时获取与属性同名的 bean。
+ */
+public class SpringDependencyProvider implements DependencyProvider {
+
+    private final ApplicationContext applicationContext;
+
+    public SpringDependencyProvider(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public Object getDependency(Class<?> type, String name, boolean qualified) {
+        if (qualified) {
+            return applicationContext.containsBean(name) ? applicationContext.getBean(name) : null;
+        }
+        String[] beanNames = applicationContext.getBeanNamesForType(type);
+        if (beanNames.length == 1) {
+            return applicationContext.getBean(beanNames[0]);
+        }
+        for (String beanName : beanNames) {
+            if (beanName.equals(name)) {
+                return applicationContext.getBean(beanName);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.servicedispatcher.invoker;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * 主程序 paramMap 的写时复制视图
+ *
+ * 创建时不复制，读操作直接访问 paramMap；第一次修改时复制为 HashMap，之后的读写都在副本上进行，主程序的 paramMap 不受影响。
+ * 复制前取得的 keySet、values、entrySet 是只读的，复制后不会反映修改，需要重新获取。
+ * 服务方法执行期间主程序不能修改 paramMap。对象不是线程安全的。
+ */
+class CopyOnWriteParamMap implements Map<String, Object> {
+
+    private final Map<String, Object> source;
+    /**
+     * 第一次修改时创建的副本
+     */
+    private HashMap<String, Object> copy;
+
+    CopyOnWriteParamMap(Map<String, Object> source) {
+        this.source = source;
+    }
+
+    private Map<String, Object> current() {
+        return copy != null ? copy : source;
+    }
+
+    private HashMap<String, Object> mutable() {
+        if (copy == null) {
+            copy = new HashMap<>(source);
+        }
+        return copy;
+    }
+
+    /**
+     * 是否已复制 paramMap
+     */
+    boolean isCopied() {
+        return copy != null;
+    }
+
+    @Override
+    public int size() {
+        return current().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return current().isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return current().containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return current().containsValue(value);
+    }
+
+    @Override
+    public Object get(Object key) {
+        return current().get(key);
+    }
+
+    @Override
+    public Object getOrDefault(Object key, Object defaultValue) {
+        return current().getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return mutable().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (copy == null && !source.containsKey(key)) {
+            return null;
+        }
+        return mutable().remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> m) {
+        mutable().putAll(m);
+    }
+
+    @Override
+    public void clear() {
+        copy = new HashMap<>();
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super Object, ?> function) {
+        mutable().replaceAll(function);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        current().forEach(action);
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return copy != null ? copy.keySet() : Collections.unmodifiableSet(source.keySet());
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return copy != null ? copy.values() : Collections.unmodifiableCollection(source.values());
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return copy != null ? copy.entrySet() : Collections.unmodifiableMap(source).entrySet();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o == this || current().equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return current().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return current().toString();
+    }
+}
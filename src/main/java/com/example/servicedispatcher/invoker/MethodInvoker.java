@@ -0,0 +1,205 @@
+package com.example.servicedispatcher.invoker;
+
+import com.example.servicedispatcher.annotation.CacheableResult;
+import com.example.servicedispatcher.annotation.MethodName;
+import com.example.servicedispatcher.annotation.ParamDto;
+import com.example.servicedispatcher.annotation.ParamHashMap;
+import com.example.servicedispatcher.cache.ResultCache;
+import com.example.servicedispatcher.limit.AdmissionController;
+import com.example.servicedispatcher.limit.MethodLimit;
+import com.example.servicedispatcher.metrics.DispatcherMetrics;
+import com.example.servicedispatcher.metrics.MethodMetrics;
+import com.example.servicedispatcher.result.Result;
+import com.example.servicedispatcher.util.BeanBinder;
+import com.example.servicedispatcher.util.JavaBeanUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 预编译的服务方法调用器
+ * 每个 @MethodName 方法在首次解析时创建一个调用器，其中保存入参绑定计划和 MethodHandle。
+ * 调用时不再反射读取入参和注解，也不再经过 Method.invoke。
+ */
+public class MethodInvoker {
+
+    private static final Object[] EMPTY_PARAM_ARRAY = new Object[0];
+
+    /**
+     * 服务类的名称，包含路径名
+     */
+    private final String serviceName;
+    /**
+     * @MethodName 中的方法名
+     */
+    private final String methodName;
+    /**
+     * 类型为 (Object, Object[])Object 的方法句柄，第一个参数是服务类对象，第二个参数是方法入参
+     */
+    private final MethodHandle methodHandle;
+    /**
+     * 入参绑定计划，顺序与方法入参一致
+     */
+    private final ParamBinder[] paramBinders;
+    /**
+     * 入参为空时的入参数组，基本类型为0或false，其他类型为 null
+     * 方法句柄只读取数组中的值，数组可以在多次调用间共用。
+     */
+    private final Object[] defaultParamArray;
+    /**
+     * 该方法的调用统计
+     */
+    private final MethodMetrics metrics;
+    /**
+     * 结果缓存，方法没有 @CacheableResult 注解时为 null
+     */
+    private final ResultCache resultCache;
+    /**
+     * 准入控制，限制来自 @MethodName，可以在运行时修改
+     */
+    private final AdmissionController admissionController;
+
+    private MethodInvoker(String serviceName, String methodName, MethodHandle methodHandle, ParamBinder[] paramBinders,
+                          Object[] defaultParamArray, CacheableResult cacheableResult, MethodLimit methodLimit) {
+        this.serviceName = serviceName;
+        this.methodName = methodName;
+        this.methodHandle = methodHandle;
+        this.paramBinders = paramBinders;
+        this.defaultParamArray = defaultParamArray;
+        this.metrics = DispatcherMetrics.getInstance().getMethodMetrics(serviceName, methodName);
+        this.resultCache = cacheableResult == null ? null : new ResultCache(serviceName, methodName,
+                cacheableResult.maximumSize(), cacheableResult.expireAfterWriteSeconds());
+        this.admissionController = new AdmissionController(serviceName, methodName, methodLimit);
+    }
+
+    /**
+     * 根据 @MethodName 标识的公有方法创建调用器
+     */
+    public static MethodInvoker create(Class<?> serviceClass, Method method) throws Exception {
+        MethodName annotation = method.getAnnotation(MethodName.class);
+        if (annotation == null) {
+            throw new Exception("类 " + serviceClass.getName() + " 中方法 " + method.getName() + " 没有 @MethodName 注解");
+        }
+        Parameter[] parameters = method.getParameters();
+        ParamBinder[] paramBinders = new ParamBinder[parameters.length];
+        Object[] defaultParamArray = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            paramBinders[i] = createParamBinder(method, parameters[i]);
+            defaultParamArray[i] = ValueConverters.defaultValue(parameters[i].getType());
+        }
+        return new MethodInvoker(serviceClass.getName(), annotation.value(), createMethodHandle(method), paramBinders,
+                defaultParamArray, method.getAnnotation(CacheableResult.class), MethodLimit.of(annotation));
+    }
+
+    /**
+     * 组织方法入参并调用方法
+     */
+    public Result invoke(Object serviceObject, HashMap<String, Object> paramMap) throws Exception {
+        Object[] paramArray = getParamArray(paramMap);
+        try {
+            return (Result) (Object) methodHandle.invokeExact(serviceObject, paramArray);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new Exception(t);
+        }
+    }
+
+    private Object[] getParamArray(HashMap<String, Object> paramMap) throws Exception {
+        if (paramBinders.length == 0) {
+            return EMPTY_PARAM_ARRAY;
+        }
+        if (paramMap == null || paramMap.isEmpty()) {
+            return defaultParamArray;
+        }
+        Object[] paramArray = new Object[paramBinders.length];
+        for (int i = 0; i < paramBinders.length; i++) {
+            paramArray[i] = paramBinders[i].bind(paramMap);
+        }
+        return paramArray;
+    }
+
+    /**
+     * 将方法转为 (Object, Object[])Object 类型的方法句柄
+     */
+    private static MethodHandle createMethodHandle(Method method) throws IllegalAccessException {
+        method.setAccessible(true);
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        int paramCount = method.getParameterCount();
+        return handle.asSpreader(Object[].class, paramCount)
+                .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+    }
+
+    /**
+     * 根据入参的注解和类型，创建入参绑定器
+     * 普通入参按类型选好转换器，值的类型不一致时转换，不能转换时抛出异常；值为空时基本类型取0或false。
+     * @see ValueConverters
+     */
+    private static ParamBinder createParamBinder(Method method, Parameter param) throws Exception {
+        Class<?> paramType = param.getType();
+        String paramName = param.getName();
+        if ("arg0".equals(paramName)) {
+            throw new Exception("反射获取到的方法 " + method.getName() + " 入参名称是 arg0");
+        }
+
+        ParamHashMap paramHashMap = param.getAnnotation(ParamHashMap.class);
+        if (paramHashMap != null) {
+            if (paramHashMap.copyOnWrite()) {
+                if (paramType != Map.class) {
+                    throw new Exception("方法入参 " + paramName + " 使用写时复制视图，类型必须是 Map");
+                }
+                return CopyOnWriteParamMap::new;
+            }
+            if (paramType != HashMap.class && paramType != Map.class) {
+                throw new Exception("方法入参 " + paramName + " 的类型不是 HashMap 或 Map");
+            }
+            return paramMap -> new HashMap<String, Object>(paramMap);
+        } else if (param.isAnnotationPresent(ParamDto.class)) {
+            BeanBinder<?> beanBinder = JavaBeanUtil.getBeanBinder(paramType, true);
+            return beanBinder::bind;
+        }
+
+        ValueConverter converter = ValueConverters.forType(paramType);
+        Object defaultValue = ValueConverters.defaultValue(paramType);
+        return paramMap -> {
+            Object obj = paramMap.get(paramName);
+            if (obj == null) {
+                return defaultValue;
+            }
+            try {
+                return converter.convert(obj);
+            } catch (RuntimeException e) {
+                throw new Exception("方法入参 " + paramName + " 的值 " + obj + " 不能转为 " + paramType.getSimpleName(), e);
+            }
+        };
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public MethodMetrics getMetrics() {
+        return metrics;
+    }
+
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+}
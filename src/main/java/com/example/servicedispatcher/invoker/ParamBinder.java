@@ -0,0 +1,15 @@
+package com.example.servicedispatcher.invoker;
+
+import java.util.HashMap;
+
+/**
+ * 方法入参绑定器
+ * 解析方法时为每个入参创建一次，调用时只负责从 paramMap 中取值。
+ */
+public interface ParamBinder {
+
+    /**
+     * 从主程序传来的 paramMap 中获取该入参的值
+     */
+    Object bind(HashMap<String, Object> paramMap) throws Exception;
+}
@@ -0,0 +1,11 @@
+package com.example.servicedispatcher.invoker;
+
+/**
+ * 将入参的值转为方法入参的类型
+ * 值不为空，不能转换时抛出运行时异常，由入参绑定器转为带入参名称的异常。
+ */
+@FunctionalInterface
+public interface ValueConverter {
+
+    Object convert(Object value);
+}
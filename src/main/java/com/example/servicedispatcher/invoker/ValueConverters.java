@@ -0,0 +1,328 @@
+package com.example.servicedispatcher.invoker;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.HashMap;
+
+/**
+ * 入参类型转换
+ *
+ * 创建调用器时按入参类型选好转换器，调用时只判断值的类型是否已经一致，不再查找转换方式。
+ * 支持的转换：
+ * 1. 整数类型之间转换，超出范围或有小数时不能转换；整数与浮点数、BigDecimal、BigInteger 之间转换；
+ *    转为浮点数时超出 float、double 范围不能转换，值本身是无穷大时除外；
+ * 2. 字符串转为数值、布尔值（true/false/1/0）、字符（长度为1）、枚举（按名称）；数值、布尔值、字符、枚举转为字符串；
+ * 3. 日期：毫秒数，或 yyyy-MM-dd、yyyy-MM-dd HH:mm、yyyy-MM-dd HH:mm:ss、yyyy-MM-dd HH:mm:ss.SSS 格式的字符串
+ *    （日期与时间之间也可以是 T），转为 Date、Timestamp、java.sql.Date、LocalDate、LocalDateTime；
+ * 4. 整数按序号转为枚举；
+ * 5. 其他类型只接受该类型的值。
+ */
+public class ValueConverters {
+
+    /**
+     * 日期字符串格式，时间部分可选
+     */
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd")
+            .optionalStart()
+            .appendPattern(" HH:mm")
+            .optionalStart()
+            .appendPattern(":ss")
+            .optionalStart()
+            .appendFraction(ChronoField.NANO_OF_SECOND, 1, 9, true)
+            .optionalEnd()
+            .optionalEnd()
+            .optionalEnd()
+            .toFormatter();
+
+    private ValueConverters() {}
+
+    /**
+     * 获取转换器
+     */
+    public static ValueConverter forType(Class<?> type) {
+        Class<?> targetType = type.isPrimitive() ? box(type) : type;
+        if (targetType == Integer.class) {
+            return v -> v instanceof Integer ? v : Math.toIntExact(toLong(v));
+        } else if (targetType == Long.class) {
+            return v -> v instanceof Long ? v : toLong(v);
+        } else if (targetType == Double.class) {
+            return v -> v instanceof Double ? v : toDouble(v);
+        } else if (targetType == Float.class) {
+            return v -> v instanceof Float ? v : toFloat(v);
+        } else if (targetType == Short.class) {
+            return v -> v instanceof Short ? v : toShort(v);
+        } else if (targetType == Byte.class) {
+            return v -> v instanceof Byte ? v : toByte(v);
+        } else if (targetType == Boolean.class) {
+            return v -> v instanceof Boolean ? v : toBoolean(v);
+        } else if (targetType == Character.class) {
+            return v -> v instanceof Character ? v : toCharacter(v);
+        } else if (targetType == String.class) {
+            return v -> v instanceof String ? v : toString(v);
+        } else if (targetType == BigDecimal.class) {
+            return v -> v instanceof BigDecimal ? v : toBigDecimal(v);
+        } else if (targetType == BigInteger.class) {
+            return v -> v instanceof BigInteger ? v : toBigDecimal(v).toBigIntegerExact();
+        } else if (targetType == Date.class) {
+            return v -> v instanceof Date ? v : new Date(toEpochMilli(v));
+        } else if (targetType == Timestamp.class) {
+            return v -> v instanceof Timestamp ? v : toTimestamp(v);
+        } else if (targetType == java.sql.Date.class) {
+            return v -> v instanceof java.sql.Date ? v : new java.sql.Date(toEpochMilli(v));
+        } else if (targetType == LocalDateTime.class) {
+            return v -> v instanceof LocalDateTime ? v : toLocalDateTime(v);
+        } else if (targetType == LocalDate.class) {
+            return v -> v instanceof LocalDate ? v : toLocalDateTime(v).toLocalDate();
+        } else if (targetType.isEnum()) {
+            return enumConverter(targetType);
+        }
+        return v -> {
+            if (targetType.isInstance(v)) {
+                return v;
+            }
+            throw new IllegalArgumentException("不支持从 " + v.getClass().getName() + " 转换");
+        };
+    }
+
+    /**
+     * 入参为空时的值，基本类型为0或false，其他类型为 null
+     */
+    public static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return null;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == char.class) {
+            return '\0';
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == float.class) {
+            return 0F;
+        } else if (type == double.class) {
+            return 0D;
+        }
+        return null;
+    }
+
+    private static Class<?> box(Class<?> type) {
+        if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == char.class) {
+            return Character.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == double.class) {
+            return Double.class;
+        }
+        return type;
+    }
+
+    private static long toLong(Object v) {
+        if (v instanceof Integer || v instanceof Long || v instanceof Short || v instanceof Byte) {
+            return ((Number) v).longValue();
+        } else if (v instanceof Number) {
+            return toBigDecimal(v).longValueExact();
+        } else if (v instanceof String) {
+            String s = ((String) v).trim();
+            try {
+                return Long.parseLong(s);
+            } catch (NumberFormatException e) {
+                return new BigDecimal(s).longValueExact();
+            }
+        }
+        throw new IllegalArgumentException("不能转为整数");
+    }
+
+    private static short toShort(Object v) {
+        long value = toLong(v);
+        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+            throw new ArithmeticException("超出 short 范围");
+        }
+        return (short) value;
+    }
+
+    private static byte toByte(Object v) {
+        long value = toLong(v);
+        if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+            throw new ArithmeticException("超出 byte 范围");
+        }
+        return (byte) value;
+    }
+
+    private static double toDouble(Object v) {
+        double value;
+        if (v instanceof Number) {
+            value = ((Number) v).doubleValue();
+        } else if (v instanceof String) {
+            value = Double.parseDouble(((String) v).trim());
+        } else {
+            throw new IllegalArgumentException("不能转为浮点数");
+        }
+        if (Double.isInfinite(value) && !isInfinite(v)) {
+            throw new ArithmeticException("超出 double 范围");
+        }
+        return value;
+    }
+
+    private static float toFloat(Object v) {
+        double value = toDouble(v);
+        if (!Double.isInfinite(value) && Math.abs(value) > Float.MAX_VALUE) {
+            throw new ArithmeticException("超出 float 范围");
+        }
+        return (float) value;
+    }
+
+    /**
+     * 值本身是否为无穷大
+     */
+    private static boolean isInfinite(Object v) {
+        if (v instanceof Double || v instanceof Float) {
+            return Double.isInfinite(((Number) v).doubleValue());
+        }
+        return v instanceof String && ((String) v).trim().endsWith("Infinity");
+    }
+
+    private static BigDecimal toBigDecimal(Object v) {
+        if (v instanceof BigDecimal) {
+            return (BigDecimal) v;
+        } else if (v instanceof BigInteger) {
+            return new BigDecimal((BigInteger) v);
+        } else if (v instanceof Integer || v instanceof Long || v instanceof Short || v instanceof Byte) {
+            return BigDecimal.valueOf(((Number) v).longValue());
+        } else if (v instanceof Number || v instanceof String) {
+            return new BigDecimal(v.toString().trim());
+        }
+        throw new IllegalArgumentException("不能转为数值");
+    }
+
+    private static Boolean toBoolean(Object v) {
+        if (v instanceof String) {
+            String s = ((String) v).trim();
+            if ("true".equalsIgnoreCase(s) || "1".equals(s)) {
+                return Boolean.TRUE;
+            } else if ("false".equalsIgnoreCase(s) || "0".equals(s)) {
+                return Boolean.FALSE;
+            }
+        } else if (v instanceof Integer || v instanceof Long || v instanceof Short || v instanceof Byte) {
+            return ((Number) v).longValue() != 0;
+        }
+        throw new IllegalArgumentException("不能转为布尔值");
+    }
+
+    private static Character toCharacter(Object v) {
+        if (v instanceof String && ((String) v).length() == 1) {
+            return ((String) v).charAt(0);
+        }
+        throw new IllegalArgumentException("不能转为字符");
+    }
+
+    private static String toString(Object v) {
+        if (v instanceof CharSequence || v instanceof Number || v instanceof Boolean || v instanceof Character) {
+            return v.toString();
+        } else if (v instanceof Enum) {
+            return ((Enum<?>) v).name();
+        }
+        throw new IllegalArgumentException("不能转为字符串");
+    }
+
+    private static long toEpochMilli(Object v) {
+        if (v instanceof Date) {
+            return ((Date) v).getTime();
+        } else if (v instanceof Number) {
+            return toLong(v);
+        } else if (v instanceof String && isDigits(((String) v).trim())) {
+            return Long.parseLong(((String) v).trim());
+        }
+        return toLocalDateTime(v).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static Timestamp toTimestamp(Object v) {
+        if (v instanceof String && !isDigits(((String) v).trim())) {
+            return Timestamp.valueOf(toLocalDateTime(v));
+        } else if (v instanceof LocalDateTime) {
+            return Timestamp.valueOf((LocalDateTime) v);
+        }
+        return new Timestamp(toEpochMilli(v));
+    }
+
+    private static LocalDateTime toLocalDateTime(Object v) {
+        if (v instanceof LocalDateTime) {
+            return (LocalDateTime) v;
+        } else if (v instanceof LocalDate) {
+            return ((LocalDate) v).atStartOfDay();
+        } else if (v instanceof Date) {
+            return LocalDateTime.ofInstant(((Date) v).toInstant(), ZoneId.systemDefault());
+        } else if (v instanceof Number) {
+            return LocalDateTime.ofInstant(new Date(toLong(v)).toInstant(), ZoneId.systemDefault());
+        } else if (v instanceof String) {
+            String s = ((String) v).trim();
+            if (isDigits(s)) {
+                return LocalDateTime.ofInstant(new Date(Long.parseLong(s)).toInstant(), ZoneId.systemDefault());
+            }
+            TemporalAccessor parsed = DATE_TIME_FORMATTER.parseBest(s.replace('T', ' '), LocalDateTime::from, LocalDate::from);
+            return parsed instanceof LocalDateTime ? (LocalDateTime) parsed : ((LocalDate) parsed).atStartOfDay();
+        }
+        throw new IllegalArgumentException("不能转为日期");
+    }
+
+    private static boolean isDigits(String s) {
+        if (s.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (!Character.isDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ValueConverter enumConverter(Class<?> enumType) {
+        Object[] constants = enumType.getEnumConstants();
+        HashMap<String, Object> constantMap = new HashMap<>();
+        for (Object constant : constants) {
+            constantMap.put(((Enum) constant).name(), constant);
+        }
+        return v -> {
+            if (enumType.isInstance(v)) {
+                return v;
+            } else if (v instanceof String) {
+                Object constant = constantMap.get(((String) v).trim());
+                if (constant != null) {
+                    return constant;
+                }
+            } else if (v instanceof Integer || v instanceof Long || v instanceof Short || v instanceof Byte) {
+                long ordinal = ((Number) v).longValue();
+                if (ordinal >= 0 && ordinal < constants.length) {
+                    return constants[(int) ordinal];
+                }
+            }
+            throw new IllegalArgumentException("不是 " + enumType.getSimpleName() + " 的常量");
+        };
+    }
+}
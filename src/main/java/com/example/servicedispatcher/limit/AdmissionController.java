@@ -0,0 +1,219 @@
+package com.example.servicedispatcher.limit;
+
+import com.example.servicedispatcher.metrics.AdmissionMetrics;
+import com.example.servicedispatcher.metrics.DispatcherMetrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 单个服务方法的准入控制
+ *
+ * 调用前先按每秒调用数取令牌，再按并发数取执行名额，都取到才执行，执行完归还名额。
+ * 令牌桶按 GCRA 实现，只用一个 AtomicLong 保存下一个令牌的理论到达时间，CAS 预约令牌，容量为一秒的令牌数；
+ * 并发数用 AtomicInteger CAS 计数。两者都不加锁。
+ * 超出上限时最多等待 maxWaitMillis：令牌按预约的时间等待，执行名额短暂休眠后重试；等待超时或不允许等待时立即拒绝。
+ * 预约了令牌但没有取到执行名额时，令牌不归还。
+ * 限制可以在运行时修改，修改每秒调用数时令牌桶重新装满。
+ */
+public class AdmissionController {
+
+    /**
+     * 等待执行名额时的休眠时间上下限，单位纳秒
+     */
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    /**
+     * 截止时间前取不到令牌
+     */
+    private static final long NO_TOKEN = Long.MIN_VALUE;
+
+    private final String serviceName;
+    private final String methodName;
+    /**
+     * 执行中的调用数
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /**
+     * 下一个令牌的理论到达时间，System.nanoTime 的时间
+     */
+    private final AtomicLong theoreticalArrivalNanos = new AtomicLong(Long.MIN_VALUE);
+    private final AdmissionMetrics metrics;
+    private volatile Settings settings;
+
+    public AdmissionController(String serviceName, String methodName, MethodLimit limit) {
+        this.serviceName = serviceName;
+        this.methodName = methodName;
+        this.metrics = DispatcherMetrics.getInstance().createAdmissionMetrics(serviceName, methodName, inFlight::get,
+                (maxConcurrency, permitsPerSecond, maxWaitMillis) -> setLimit(new MethodLimit(maxConcurrency, permitsPerSecond, maxWaitMillis)));
+        setLimit(limit);
+    }
+
+    /**
+     * 修改限制，对之后的调用生效
+     * 已在执行的调用不受影响，调低并发数上限时，执行中的调用数可能暂时超出新的上限。
+     */
+    public void setLimit(MethodLimit limit) {
+        MethodLimit newLimit = limit == null ? MethodLimit.unlimited() : limit;
+        Settings old = settings;
+        if (old == null || old.limit.getPermitsPerSecond() != newLimit.getPermitsPerSecond()) {
+            theoreticalArrivalNanos.set(Long.MIN_VALUE);
+        }
+        settings = new Settings(newLimit);
+        metrics.recordLimit(newLimit.getMaxConcurrency(), newLimit.getPermitsPerSecond(), newLimit.getMaxWaitMillis());
+    }
+
+    public MethodLimit getLimit() {
+        return settings.limit;
+    }
+
+    /**
+     * 申请执行
+     * 返回 null 时可以执行，执行完必须调用 {@link #release()}；否则返回拒绝原因，不需要 release。
+     */
+    public String tryAcquire() {
+        Settings s = settings;
+        if (s.unlimited) {
+            inFlight.incrementAndGet();
+            metrics.recordAdmitted();
+            return null;
+        }
+        long start = System.nanoTime();
+        long deadline = start + s.maxWaitNanos;
+        boolean isWaited = false;
+        if (s.intervalNanos > 0) {
+            long available = reserveToken(s, start, deadline);
+            if (available == NO_TOKEN || (available > start && !parkUntil(available))) {
+                metrics.recordRateRejected();
+                return "服务方法 " + methodName + " 调用过于频繁，请稍后重试";
+            }
+            isWaited = available > start;
+        }
+        int maxConcurrency = s.limit.getMaxConcurrency();
+        if (maxConcurrency <= 0) {
+            inFlight.incrementAndGet();
+        } else if (!tryAcquireSlot(maxConcurrency)) {
+            if (!awaitSlot(maxConcurrency, deadline)) {
+                metrics.recordConcurrencyRejected();
+                return "服务方法 " + methodName + " 并发调用数已达上限，请稍后重试";
+            }
+            isWaited = true;
+        }
+        metrics.recordAdmitted();
+        if (isWaited) {
+            metrics.recordWait(System.nanoTime() - start);
+        }
+        return null;
+    }
+
+    /**
+     * 执行完归还执行名额
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * 预约令牌
+     *
+     * @return 令牌可用的时间，截止时间前不可用时返回 NO_TOKEN，不预约
+     */
+    private long reserveToken(Settings s, long now, long deadline) {
+        while (true) {
+            long tat = theoreticalArrivalNanos.get();
+            long newTat = Math.max(tat, now) + s.intervalNanos;
+            long available = newTat - s.burstNanos;
+            if (available > deadline) {
+                return NO_TOKEN;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(tat, newTat)) {
+                return available;
+            }
+        }
+    }
+
+    /**
+     * 等到指定时间，线程被中断时返回 false
+     */
+    private static boolean parkUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean tryAcquireSlot(int maxConcurrency) {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxConcurrency) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 执行名额已满时休眠后重试，直到截止时间
+     */
+    private boolean awaitSlot(int maxConcurrency, long deadline) {
+        long parkNanos = MIN_PARK_NANOS;
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            LockSupport.parkNanos(Math.min(remaining, parkNanos));
+            parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+            if (tryAcquireSlot(maxConcurrency)) {
+                return true;
+            }
+        }
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * 限制和由限制计算出的令牌间隔
+     */
+    private static class Settings {
+
+        private final MethodLimit limit;
+        private final boolean unlimited;
+        private final long maxWaitNanos;
+        /**
+         * 两个令牌的间隔，不限制每秒调用数时为0
+         */
+        private final long intervalNanos;
+        /**
+         * 令牌桶容量对应的时间，容量为一秒的令牌数，至少为1个
+         */
+        private final long burstNanos;
+
+        Settings(MethodLimit limit) {
+            this.limit = limit;
+            this.unlimited = limit.isUnlimited();
+            this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(limit.getMaxWaitMillis());
+            if (limit.getPermitsPerSecond() > 0) {
+                this.intervalNanos = Math.max((long) (TimeUnit.SECONDS.toNanos(1) / limit.getPermitsPerSecond()), 1);
+                this.burstNanos = intervalNanos * Math.max((long) limit.getPermitsPerSecond(), 1);
+            } else {
+                this.intervalNanos = 0;
+                this.burstNanos = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.servicedispatcher.limit;
+
+import com.example.servicedispatcher.annotation.MethodName;
+
+/**
+ * 服务方法的准入限制
+ * 同时执行的调用数上限、每秒调用数上限和等待时间上限，上限小于等于0表示不限制。
+ */
+public class MethodLimit {
+
+    private static final MethodLimit UNLIMITED = new MethodLimit(0, 0, 0);
+
+    private final int maxConcurrency;
+    private final double permitsPerSecond;
+    private final long maxWaitMillis;
+
+    /**
+     * @param maxConcurrency 同时执行的调用数上限
+     * @param permitsPerSecond 每秒调用数上限，允许一秒内的突发调用
+     * @param maxWaitMillis 超出上限时最多等待的时间，单位毫秒，0表示不等待直接拒绝
+     */
+    public MethodLimit(int maxConcurrency, double permitsPerSecond, long maxWaitMillis) {
+        this.maxConcurrency = Math.max(maxConcurrency, 0);
+        this.permitsPerSecond = permitsPerSecond > 0 ? permitsPerSecond : 0;
+        this.maxWaitMillis = Math.max(maxWaitMillis, 0);
+    }
+
+    /**
+     * 读取 @MethodName 中的限制
+     */
+    public static MethodLimit of(MethodName annotation) {
+        if (annotation.maxConcurrency() <= 0 && annotation.permitsPerSecond() <= 0) {
+            return UNLIMITED;
+        }
+        return new MethodLimit(annotation.maxConcurrency(), annotation.permitsPerSecond(), annotation.maxWaitMillis());
+    }
+
+    public static MethodLimit unlimited() {
+        return UNLIMITED;
+    }
+
+    public boolean isUnlimited() {
+        return maxConcurrency <= 0 && permitsPerSecond <= 0;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "MethodLimit{maxConcurrency=" + maxConcurrency + ", permitsPerSecond=" + permitsPerSecond + ", maxWaitMillis=" + maxWaitMillis + "}";
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.servicedispatcher.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * 单个服务方法的准入控制统计
+ * 计数使用 LongAdder，记录时不加锁；执行中的调用数在读取时获取。限制可以通过 JMX 修改。
+ */
+public class AdmissionMetrics {
+
+    /**
+     * 修改限制
+     */
+    @FunctionalInterface
+    public interface LimitUpdater {
+        void update(int maxConcurrency, double permitsPerSecond, long maxWaitMillis);
+    }
+
+    private final String serviceName;
+    private final String methodName;
+    private final IntSupplier inFlight;
+    private final LimitUpdater limitUpdater;
+    private volatile int maxConcurrency;
+    private volatile double permitsPerSecond;
+    private volatile long maxWaitMillis;
+    private final LongAdder admittedCount = new LongAdder();
+    /**
+     * 并发数已满被拒绝的次数
+     */
+    private final LongAdder concurrencyRejectedCount = new LongAdder();
+    /**
+     * 超出每秒调用数被拒绝的次数
+     */
+    private final LongAdder rateRejectedCount = new LongAdder();
+    /**
+     * 等待后才放行的次数和总等待时间
+     */
+    private final LongAdder waitedCount = new LongAdder();
+    private final LongAdder waitedNanos = new LongAdder();
+
+    AdmissionMetrics(String serviceName, String methodName, IntSupplier inFlight, LimitUpdater limitUpdater) {
+        this.serviceName = serviceName;
+        this.methodName = methodName;
+        this.inFlight = inFlight;
+        this.limitUpdater = limitUpdater;
+    }
+
+    /**
+     * 记录当前的限制
+     */
+    public void recordLimit(int maxConcurrency, double permitsPerSecond, long maxWaitMillis) {
+        this.maxConcurrency = maxConcurrency;
+        this.permitsPerSecond = permitsPerSecond;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public void recordAdmitted() {
+        admittedCount.increment();
+    }
+
+    public void recordConcurrencyRejected() {
+        concurrencyRejectedCount.increment();
+    }
+
+    public void recordRateRejected() {
+        rateRejectedCount.increment();
+    }
+
+    public void recordWait(long nanos) {
+        waitedCount.increment();
+        waitedNanos.add(nanos);
+    }
+
+    void updateLimit(int maxConcurrency, double permitsPerSecond, long maxWaitMillis) {
+        limitUpdater.update(maxConcurrency, permitsPerSecond, maxWaitMillis);
+    }
+
+    void reset() {
+        admittedCount.reset();
+        concurrencyRejectedCount.reset();
+        rateRejectedCount.reset();
+        waitedCount.reset();
+        waitedNanos.reset();
+    }
+
+    /**
+     * 当前统计数据
+     */
+    public AdmissionStats getStats() {
+        long waited = waitedCount.sum();
+        double meanWaitMillis = waited == 0 ? 0 : waitedNanos.sum() / 1000000.0 / waited;
+        return new AdmissionStats(serviceName, methodName, maxConcurrency, permitsPerSecond, maxWaitMillis, inFlight.getAsInt(),
+                admittedCount.sum(), concurrencyRejectedCount.sum(), rateRejectedCount.sum(), waited, meanWaitMillis);
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.servicedispatcher.metrics;
+
+/**
+ * 单个服务方法的准入控制统计数据快照
+ * 上限为0表示不限制。
+ */
+public class AdmissionStats {
+
+    private final String serviceName;
+    private final String methodName;
+    private final int maxConcurrency;
+    private final double permitsPerSecond;
+    private final long maxWaitMillis;
+    private final int inFlight;
+    private final long admittedCount;
+    private final long concurrencyRejectedCount;
+    private final long rateRejectedCount;
+    private final long waitedCount;
+    private final double meanWaitMillis;
+
+    public AdmissionStats(String serviceName, String methodName, int maxConcurrency, double permitsPerSecond, long maxWaitMillis,
+                          int inFlight, long admittedCount, long concurrencyRejectedCount, long rateRejectedCount,
+                          long waitedCount, double meanWaitMillis) {
+        this.serviceName = serviceName;
+        this.methodName = methodName;
+        this.maxConcurrency = maxConcurrency;
+        this.permitsPerSecond = permitsPerSecond;
+        this.maxWaitMillis = maxWaitMillis;
+        this.inFlight = inFlight;
+        this.admittedCount = admittedCount;
+        this.concurrencyRejectedCount = concurrencyRejectedCount;
+        this.rateRejectedCount = rateRejectedCount;
+        this.waitedCount = waitedCount;
+        this.meanWaitMillis = meanWaitMillis;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public long getAdmittedCount() {
+        return admittedCount;
+    }
+
+    public long getConcurrencyRejectedCount() {
+        return concurrencyRejectedCount;
+    }
+
+    public long getRateRejectedCount() {
+        return rateRejectedCount;
+    }
+
+    public long getWaitedCount() {
+        return waitedCount;
+    }
+
+    public double getMeanWaitMillis() {
+        return meanWaitMillis;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.servicedispatcher.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * 单个服务的异步线程池统计
+ * 计数使用 LongAdder，记录时不加锁；执行中的调用数、队列长度在读取时获取。
+ */
+public class BulkheadMetrics {
+
+    private final String serviceName;
+    /**
+     * 同时执行的调用数上限
+     */
+    private final int maxThreads;
+    private final IntSupplier activeThreads;
+    private final IntSupplier queueDepth;
+    private final int queueCapacity;
+    private final LongAdder submittedCount = new LongAdder();
+    /**
+     * 线程池和队列已满被拒绝的次数
+     */
+    private final LongAdder rejectedCount = new LongAdder();
+    /**
+     * 超时未完成的次数
+     */
+    private final LongAdder timeoutCount = new LongAdder();
+
+    BulkheadMetrics(String serviceName, int maxThreads, IntSupplier activeThreads, IntSupplier queueDepth, int queueCapacity) {
+        this.serviceName = serviceName;
+        this.maxThreads = maxThreads;
+        this.activeThreads = activeThreads;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public void recordSubmitted() {
+        submittedCount.increment();
+    }
+
+    public void recordRejected() {
+        rejectedCount.increment();
+    }
+
+    public void recordTimeout() {
+        timeoutCount.increment();
+    }
+
+    void reset() {
+        submittedCount.reset();
+        rejectedCount.reset();
+        timeoutCount.reset();
+    }
+
+    /**
+     * 当前统计数据
+     */
+    public BulkheadStats getStats() {
+        return new BulkheadStats(serviceName, maxThreads, activeThreads.getAsInt(), queueDepth.getAsInt(), queueCapacity, submittedCount.sum(), rejectedCount.sum(), timeoutCount.sum());
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.servicedispatcher.metrics;
+
+/**
+ * 单个服务的异步线程池统计数据快照
+ */
+public class BulkheadStats {
+
+    private final String serviceName;
+    private final int maxThreads;
+    private final int activeThreads;
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final long submittedCount;
+    private final long rejectedCount;
+    private final long timeoutCount;
+
+    public BulkheadStats(String serviceName, int maxThreads, int activeThreads, int queueDepth, int queueCapacity,
+                         long submittedCount, long rejectedCount, long timeoutCount) {
+        this.serviceName = serviceName;
+        this.maxThreads = maxThreads;
+        this.activeThreads = activeThreads;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.submittedCount = submittedCount;
+        this.rejectedCount = rejectedCount;
+        this.timeoutCount = timeoutCount;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public int getActiveThreads() {
+        return activeThreads;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+}
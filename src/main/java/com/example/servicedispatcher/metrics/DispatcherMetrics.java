@@ -0,0 +1,212 @@
+package com.example.servicedispatcher.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntSupplier;
+
+/**
+ * 服务调用统计
+ * 按（服务类，方法名）记录调用次数、异常次数、耗时分布和准入控制的拒绝次数，按服务类记录异步线程池的队列长度和拒绝次数，通过 JMX 查看。
+ * 同时管理调用日志的采样率：默认不记录每次调用的日志，可通过系统属性 servicedispatcher.logSampleRate 或 JMX 开启。
+ */
+public class DispatcherMetrics implements DispatcherMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.example.servicedispatcher:type=DispatcherMetrics";
+
+    private static final DispatcherMetrics instance = new DispatcherMetrics();
+    private static final Logger logger = LoggerFactory.getLogger(DispatcherMetrics.class);
+
+    /**
+     * key是服务类的名称 + "#" + @MethodName 中的方法名，value是统计对象
+     */
+    private final ConcurrentHashMap<String, MethodMetrics> methodMetricsMap = new ConcurrentHashMap<>();
+    /**
+     * key是服务类的名称，value是异步线程池统计对象
+     */
+    private final ConcurrentHashMap<String, BulkheadMetrics> bulkheadMetricsMap = new ConcurrentHashMap<>();
+    /**
+     * 调用日志的采样率
+     */
+    private volatile int logSampleRate = Integer.getInteger("servicedispatcher.logSampleRate", 0);
+
+    /**
+     * key是服务类的名称 + "#" + @MethodName 中的方法名，value是结果缓存统计对象
+     */
+    private final ConcurrentHashMap<String, ResultCacheMetrics> resultCacheMetricsMap = new ConcurrentHashMap<>();
+    /**
+     * key是服务类的名称 + "#" + @MethodName 中的方法名，value是准入控制统计对象
+     */
+    private final ConcurrentHashMap<String, AdmissionMetrics> admissionMetricsMap = new ConcurrentHashMap<>();
+    /**
+     * 启动耗时，未调用启动方法时为 -1
+     */
+    private volatile long startupNanos = -1;
+
+    private DispatcherMetrics() {}
+
+    public static DispatcherMetrics getInstance() {
+        return instance;
+    }
+
+    /**
+     * 获取统计对象，不存在则创建
+     */
+    public MethodMetrics getMethodMetrics(String serviceName, String methodName) {
+        return methodMetricsMap.computeIfAbsent(serviceName + "#" + methodName, k -> new MethodMetrics(serviceName, methodName));
+    }
+
+    /**
+     * 创建服务的异步线程池统计对象，替换该服务原有的统计对象
+     *
+     * @param maxThreads 同时执行的调用数上限
+     * @param activeThreads 读取执行中的调用数
+     * @param queueDepth 读取排队的调用数
+     * @param queueCapacity 队列长度上限
+     */
+    public BulkheadMetrics createBulkheadMetrics(String serviceName, int maxThreads, IntSupplier activeThreads,
+                                                 IntSupplier queueDepth, int queueCapacity) {
+        BulkheadMetrics bulkheadMetrics = new BulkheadMetrics(serviceName, maxThreads, activeThreads, queueDepth, queueCapacity);
+        bulkheadMetricsMap.put(serviceName, bulkheadMetrics);
+        return bulkheadMetrics;
+    }
+
+    /**
+     * 创建服务方法的结果缓存统计对象，替换该方法原有的统计对象
+     *
+     * @param size 读取缓存条数
+     */
+    public ResultCacheMetrics createResultCacheMetrics(String serviceName, String methodName, int maximumSize, IntSupplier size) {
+        ResultCacheMetrics resultCacheMetrics = new ResultCacheMetrics(serviceName, methodName, maximumSize, size);
+        resultCacheMetricsMap.put(serviceName + "#" + methodName, resultCacheMetrics);
+        return resultCacheMetrics;
+    }
+
+    /**
+     * 创建服务方法的准入控制统计对象，替换该方法原有的统计对象
+     *
+     * @param inFlight 读取执行中的调用数
+     * @param limitUpdater 通过 JMX 修改限制时调用
+     */
+    public AdmissionMetrics createAdmissionMetrics(String serviceName, String methodName, IntSupplier inFlight,
+                                                   AdmissionMetrics.LimitUpdater limitUpdater) {
+        AdmissionMetrics admissionMetrics = new AdmissionMetrics(serviceName, methodName, inFlight, limitUpdater);
+        admissionMetricsMap.put(serviceName + "#" + methodName, admissionMetrics);
+        return admissionMetrics;
+    }
+
+    /**
+     * 记录启动耗时
+     */
+    public void recordStartup(long nanos) {
+        this.startupNanos = nanos;
+    }
+
+    /**
+     * 本次调用是否记录日志
+     */
+    public boolean isLogSampled() {
+        int rate = logSampleRate;
+        return rate > 0 && (rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0);
+    }
+
+    @Override
+    public List<MethodStats> getMethodStats() {
+        List<MethodStats> list = new ArrayList<>(methodMetricsMap.size());
+        for (MethodMetrics methodMetrics : methodMetricsMap.values()) {
+            list.add(methodMetrics.getStats());
+        }
+        return list;
+    }
+
+    @Override
+    public List<BulkheadStats> getBulkheadStats() {
+        List<BulkheadStats> list = new ArrayList<>(bulkheadMetricsMap.size());
+        for (BulkheadMetrics bulkheadMetrics : bulkheadMetricsMap.values()) {
+            list.add(bulkheadMetrics.getStats());
+        }
+        return list;
+    }
+
+    @Override
+    public List<ResultCacheStats> getResultCacheStats() {
+        List<ResultCacheStats> list = new ArrayList<>(resultCacheMetricsMap.size());
+        for (ResultCacheMetrics resultCacheMetrics : resultCacheMetricsMap.values()) {
+            list.add(resultCacheMetrics.getStats());
+        }
+        return list;
+    }
+
+    @Override
+    public List<AdmissionStats> getAdmissionStats() {
+        List<AdmissionStats> list = new ArrayList<>(admissionMetricsMap.size());
+        for (AdmissionMetrics admissionMetrics : admissionMetricsMap.values()) {
+            list.add(admissionMetrics.getStats());
+        }
+        return list;
+    }
+
+    @Override
+    public void setMethodLimit(String serviceName, String methodName, int maxConcurrency, double permitsPerSecond, long maxWaitMillis) {
+        AdmissionMetrics admissionMetrics = admissionMetricsMap.get(serviceName + "#" + methodName);
+        if (admissionMetrics == null) {
+            throw new IllegalArgumentException("服务方法 " + serviceName + "#" + methodName + " 不存在或尚未加载");
+        }
+        admissionMetrics.updateLimit(maxConcurrency, permitsPerSecond, maxWaitMillis);
+        logger.info("修改服务方法 {}#{} 的限制：并发数 {}，每秒调用数 {}，等待时间 {} ms", serviceName, methodName, maxConcurrency, permitsPerSecond, maxWaitMillis);
+    }
+
+    @Override
+    public long getStartupMillis() {
+        long nanos = startupNanos;
+        return nanos < 0 ? -1 : nanos / 1000000;
+    }
+
+    @Override
+    public int getLogSampleRate() {
+        return logSampleRate;
+    }
+
+    @Override
+    public void setLogSampleRate(int logSampleRate) {
+        this.logSampleRate = Math.max(logSampleRate, 0);
+    }
+
+    @Override
+    public void reset() {
+        for (MethodMetrics methodMetrics : methodMetricsMap.values()) {
+            methodMetrics.reset();
+        }
+        for (BulkheadMetrics bulkheadMetrics : bulkheadMetricsMap.values()) {
+            bulkheadMetrics.reset();
+        }
+        for (ResultCacheMetrics resultCacheMetrics : resultCacheMetricsMap.values()) {
+            resultCacheMetrics.reset();
+        }
+        for (AdmissionMetrics admissionMetrics : admissionMetricsMap.values()) {
+            admissionMetrics.reset();
+        }
+    }
+
+    /**
+     * 注册到 JMX，重复调用只注册一次
+     */
+    public static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(instance, name);
+            }
+        } catch (Exception e) {
+            logger.warn("注册服务调用统计 MBean 失败：{}", e.getMessage(), e);
+        }
+    }
+}
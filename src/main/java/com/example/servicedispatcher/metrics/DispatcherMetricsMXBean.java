@@ -0,0 +1,56 @@
+package com.example.servicedispatcher.metrics;
+
+import java.util.List;
+
+/**
+ * 服务调用统计的 JMX 接口
+ * ObjectName 为 com.example.servicedispatcher:type=DispatcherMetrics
+ */
+public interface DispatcherMetricsMXBean {
+
+    /**
+     * 全部服务方法的统计数据
+     */
+    List<MethodStats> getMethodStats();
+
+    /**
+     * 全部服务的异步线程池统计数据
+     */
+    List<BulkheadStats> getBulkheadStats();
+
+    /**
+     * 全部结果缓存的统计数据
+     */
+    List<ResultCacheStats> getResultCacheStats();
+
+    /**
+     * 全部服务方法的准入控制统计数据，包括当前的限制和执行中的调用数
+     */
+    List<AdmissionStats> getAdmissionStats();
+
+    /**
+     * 修改服务方法的限制，立即生效，上限小于等于0表示不限制
+     * 只修改已加载的方法，服务类重新加载后恢复为 @MethodName 中的限制。
+     *
+     * @param serviceName 服务类的名称，包含路径名
+     * @param methodName @MethodName 中的方法名
+     */
+    void setMethodLimit(String serviceName, String methodName, int maxConcurrency, double permitsPerSecond, long maxWaitMillis);
+
+    /**
+     * 启动方法从扫描到全部服务就绪的耗时，单位毫秒，未调用启动方法时为 -1
+     */
+    long getStartupMillis();
+
+    /**
+     * 调用日志的采样率，0=不记录，1=每次都记录，n=平均每n次记录一次
+     */
+    int getLogSampleRate();
+
+    void setLogSampleRate(int logSampleRate);
+
+    /**
+     * 清空统计数据
+     */
+    void reset();
+}
@@ -0,0 +1,61 @@
+package com.example.servicedispatcher.metrics;
+
+import com.example.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个服务方法的调用统计
+ * 计数使用 LongAdder，记录时不加锁。
+ */
+public class MethodMetrics {
+
+    private final String serviceName;
+    private final String methodName;
+    private final LongAdder callCount = new LongAdder();
+    /**
+     * 抛出异常的次数
+     */
+    private final LongAdder errorCount = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    MethodMetrics(String serviceName, String methodName) {
+        this.serviceName = serviceName;
+        this.methodName = methodName;
+    }
+
+    /**
+     * 记录一次调用
+     *
+     * @param isError 是否抛出了异常
+     */
+    public void record(long nanos, boolean isError) {
+        callCount.increment();
+        if (isError) {
+            errorCount.increment();
+        }
+        latency.record(nanos);
+    }
+
+    void reset() {
+        callCount.reset();
+        errorCount.reset();
+        latency.reset();
+    }
+
+    /**
+     * 当前统计数据
+     */
+    public MethodStats getStats() {
+        return new MethodStats(serviceName, methodName, callCount.sum(), errorCount.sum(), latency.getMean(),
+                latency.getValueAtPercentile(0.5), latency.getValueAtPercentile(0.99), latency.getValueAtPercentile(0.999), latency.getMax());
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.servicedispatcher.metrics;
+
+/**
+ * 单个服务方法的统计数据快照，耗时单位纳秒
+ */
+public class MethodStats {
+
+    private final String serviceName;
+    private final String methodName;
+    private final long callCount;
+    private final long errorCount;
+    private final double meanNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    public MethodStats(String serviceName, String methodName, long callCount, long errorCount, double meanNanos,
+                       long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+        this.serviceName = serviceName;
+        this.methodName = methodName;
+        this.callCount = callCount;
+        this.errorCount = errorCount;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public long getCallCount() {
+        return callCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public double getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+}
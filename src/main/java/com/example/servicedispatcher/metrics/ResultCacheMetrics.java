@@ -0,0 +1,54 @@
+package com.example.servicedispatcher.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * 单个服务方法的结果缓存统计
+ * 计数使用 LongAdder，记录时不加锁；缓存条数在读取时获取。
+ */
+public class ResultCacheMetrics {
+
+    private final String serviceName;
+    private final String methodName;
+    private final int maximumSize;
+    private final IntSupplier size;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    /**
+     * 因超出条数上限或过期被移除的次数
+     */
+    private final LongAdder evictionCount = new LongAdder();
+
+    ResultCacheMetrics(String serviceName, String methodName, int maximumSize, IntSupplier size) {
+        this.serviceName = serviceName;
+        this.methodName = methodName;
+        this.maximumSize = maximumSize;
+        this.size = size;
+    }
+
+    public void recordHit() {
+        hitCount.increment();
+    }
+
+    public void recordMiss() {
+        missCount.increment();
+    }
+
+    public void recordEviction() {
+        evictionCount.increment();
+    }
+
+    void reset() {
+        hitCount.reset();
+        missCount.reset();
+        evictionCount.reset();
+    }
+
+    /**
+     * 当前统计数据
+     */
+    public ResultCacheStats getStats() {
+        return new ResultCacheStats(serviceName, methodName, size.getAsInt(), maximumSize, hitCount.sum(), missCount.sum(), evictionCount.sum());
+    }
+}
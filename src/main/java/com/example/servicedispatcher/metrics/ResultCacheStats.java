@@ -0,0 +1,62 @@
+package com.example.servicedispatcher.metrics;
+
+/**
+ * 单个服务方法的结果缓存统计数据快照
+ */
+public class ResultCacheStats {
+
+    private final String serviceName;
+    private final String methodName;
+    private final int size;
+    private final int maximumSize;
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+
+    public ResultCacheStats(String serviceName, String methodName, int size, int maximumSize,
+                            long hitCount, long missCount, long evictionCount) {
+        this.serviceName = serviceName;
+        this.methodName = methodName;
+        this.size = size;
+        this.maximumSize = maximumSize;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 命中率，没有请求时为0
+     */
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+}
@@ -0,0 +1,441 @@
+package com.example.servicedispatcher.result;
+
+import com.alibaba.fastjson.JSON;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 二进制编解码，长度前缀格式
+ *
+ * 格式：版本号1字节，之后依次是 code、message、data 三个值。
+ * 每个值以1字节类型开头，整数使用 zigzag 变长编码，字符串、集合、map 先写长度再写内容，字符串按 UTF-8 编码。
+ * 字符串直接逐字符编码进缓冲区，不生成中间的字节数组；写入 OutputStream 时缓冲区满即写出。
+ *
+ * 支持 null、Boolean、Integer、Short、Byte、Long、Float、Double、BigDecimal、BigInteger、String、Character、
+ * 枚举（按名称）、Date、byte[]、Map、Collection 和数组。其他对象先经 fastjson 转为 map 或集合，与 json 输出的属性一致。
+ * 解码后整数为 Integer 或 Long，map 为 HashMap，集合和数组为 ArrayList，Date 为 java.util.Date。
+ */
+public class BinaryResultCodec implements ResultCodec {
+
+    public static final String CONTENT_TYPE = "application/x-dispatcher-result";
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_TRUE = 1;
+    private static final byte TYPE_FALSE = 2;
+    private static final byte TYPE_INT = 3;
+    private static final byte TYPE_LONG = 4;
+    private static final byte TYPE_FLOAT = 5;
+    private static final byte TYPE_DOUBLE = 6;
+    private static final byte TYPE_STRING = 7;
+    private static final byte TYPE_BIG_DECIMAL = 8;
+    private static final byte TYPE_BIG_INTEGER = 9;
+    private static final byte TYPE_DATE = 10;
+    private static final byte TYPE_BYTES = 11;
+    private static final byte TYPE_MAP = 12;
+    private static final byte TYPE_LIST = 13;
+
+    /**
+     * 写入 OutputStream 时的缓冲区大小
+     */
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    /**
+     * 对象嵌套的最大层数，防止循环引用导致栈溢出
+     */
+    private static final int MAX_DEPTH = 64;
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] encode(Result result) throws IOException {
+        Output out = new Output(256, null);
+        writeResult(out, result);
+        return Arrays.copyOf(out.buf, out.count);
+    }
+
+    @Override
+    public void encode(Result result, OutputStream outputStream) throws IOException {
+        Output out = new Output(STREAM_BUFFER_SIZE, outputStream);
+        writeResult(out, result);
+        out.flush();
+        outputStream.flush();
+    }
+
+    @Override
+    public Result decode(byte[] bytes) throws IOException {
+        Input in = new Input(bytes);
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("不支持的返回值格式版本：" + version);
+        }
+        Object code = readValue(in, 0);
+        Object message = readValue(in, 0);
+        Object data = readValue(in, 0);
+        if ((code != null && !(code instanceof String)) || (message != null && !(message instanceof String))) {
+            throw new IOException("返回值格式错误，code、message 不是字符串");
+        }
+        if (!(data instanceof HashMap)) {
+            throw new IOException("返回值格式错误，data 不是 map");
+        }
+        @SuppressWarnings("unchecked")
+        HashMap<String, Object> dataMap = (HashMap<String, Object>) data;
+        Result result = Result.create((String) code, (String) message);
+        result.setData(dataMap);
+        return result;
+    }
+
+    private static void writeResult(Output out, Result result) throws IOException {
+        out.writeByte(FORMAT_VERSION);
+        writeValue(out, result.getCode(), 0);
+        writeValue(out, result.getMessage(), 0);
+        Map<String, Object> data = result.getData();
+        writeValue(out, data == null ? new HashMap<String, Object>(0) : data, 0);
+    }
+
+    private static void writeValue(Output out, Object value, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("返回值嵌套层数超过" + MAX_DEPTH + "，可能存在循环引用");
+        }
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(TYPE_STRING);
+            out.writeString((String) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(TYPE_INT);
+            out.writeVarLong(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeVarLong((Long) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TYPE_TRUE : TYPE_FALSE);
+        } else if (value instanceof Double) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeFixedLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof Float) {
+            out.writeByte(TYPE_FLOAT);
+            out.writeFixedInt(Float.floatToRawIntBits((Float) value));
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(TYPE_BIG_DECIMAL);
+            out.writeString(value.toString());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(TYPE_BIG_INTEGER);
+            out.writeString(value.toString());
+        } else if (value instanceof Date) {
+            out.writeByte(TYPE_DATE);
+            out.writeVarLong(((Date) value).getTime());
+        } else if (value instanceof Character) {
+            out.writeByte(TYPE_STRING);
+            out.writeString(value.toString());
+        } else if (value instanceof Enum) {
+            out.writeByte(TYPE_STRING);
+            out.writeString(((Enum<?>) value).name());
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            out.writeByte(TYPE_BYTES);
+            out.writeVarLong(bytes.length);
+            out.writeBytes(bytes);
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(TYPE_MAP);
+            out.writeVarLong(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                Object key = entry.getKey();
+                out.writeString(key instanceof String ? (String) key : String.valueOf(key));
+                writeValue(out, entry.getValue(), depth + 1);
+            }
+        } else if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            out.writeByte(TYPE_LIST);
+            out.writeVarLong(collection.size());
+            for (Object element : collection) {
+                writeValue(out, element, depth + 1);
+            }
+        } else if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            out.writeByte(TYPE_LIST);
+            out.writeVarLong(array.length);
+            for (Object element : array) {
+                writeValue(out, element, depth + 1);
+            }
+        } else {
+            // Java对象、基本类型数组等，按 fastjson 的规则转为 map 或集合
+            Object converted = JSON.toJSON(value);
+            if (converted == value || converted == null) {
+                out.writeByte(TYPE_STRING);
+                out.writeString(value.toString());
+            } else {
+                writeValue(out, converted, depth + 1);
+            }
+        }
+    }
+
+    private static Object readValue(Input in, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("返回值嵌套层数超过" + MAX_DEPTH);
+        }
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_TRUE:
+                return Boolean.TRUE;
+            case TYPE_FALSE:
+                return Boolean.FALSE;
+            case TYPE_INT:
+                return (int) in.readVarLong();
+            case TYPE_LONG:
+                return in.readVarLong();
+            case TYPE_FLOAT:
+                return Float.intBitsToFloat(in.readFixedInt());
+            case TYPE_DOUBLE:
+                return Double.longBitsToDouble(in.readFixedLong());
+            case TYPE_STRING:
+                return in.readString();
+            case TYPE_BIG_DECIMAL:
+                return new BigDecimal(in.readString());
+            case TYPE_BIG_INTEGER:
+                return new BigInteger(in.readString());
+            case TYPE_DATE:
+                return new Date(in.readVarLong());
+            case TYPE_BYTES:
+                return in.readBytes(in.readLength());
+            case TYPE_MAP: {
+                int size = in.readLength();
+                HashMap<String, Object> map = new HashMap<>(size < 12 ? 16 : (int) (size / 0.75f) + 1);
+                for (int i = 0; i < size; i++) {
+                    String key = in.readString();
+                    map.put(key, readValue(in, depth + 1));
+                }
+                return map;
+            }
+            case TYPE_LIST: {
+                int size = in.readLength();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in, depth + 1));
+                }
+                return list;
+            }
+            default:
+                throw new IOException("返回值格式错误，未知的类型：" + type);
+        }
+    }
+
+    /**
+     * 编码缓冲区
+     * 没有 OutputStream 时按需扩容；有 OutputStream 时缓冲区满即写出，只在单次写入超过缓冲区时扩容。
+     */
+    private static final class Output {
+
+        private byte[] buf;
+        private int count;
+        private final OutputStream outputStream;
+
+        Output(int capacity, OutputStream outputStream) {
+            this.buf = new byte[capacity];
+            this.outputStream = outputStream;
+        }
+
+        void writeByte(int b) throws IOException {
+            ensureCapacity(1);
+            buf[count++] = (byte) b;
+        }
+
+        void writeBytes(byte[] bytes) throws IOException {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buf, count, bytes.length);
+            count += bytes.length;
+        }
+
+        /**
+         * zigzag 变长编码，绝对值小的负数也只占少量字节
+         */
+        void writeVarLong(long value) throws IOException {
+            ensureCapacity(10);
+            long v = (value << 1) ^ (value >> 63);
+            while ((v & ~0x7FL) != 0) {
+                buf[count++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[count++] = (byte) v;
+        }
+
+        void writeFixedInt(int value) throws IOException {
+            ensureCapacity(4);
+            buf[count++] = (byte) (value >>> 24);
+            buf[count++] = (byte) (value >>> 16);
+            buf[count++] = (byte) (value >>> 8);
+            buf[count++] = (byte) value;
+        }
+
+        void writeFixedLong(long value) throws IOException {
+            writeFixedInt((int) (value >>> 32));
+            writeFixedInt((int) value);
+        }
+
+        /**
+         * 先写 UTF-8 字节数，再逐字符编码，不成对的代理字符按问号编码，与 String.getBytes 一致
+         */
+        void writeString(String s) throws IOException {
+            int length = s.length();
+            writeVarLong(utf8Length(s));
+            for (int i = 0; i < length; i++) {
+                char c = s.charAt(i);
+                ensureCapacity(4);
+                if (c < 0x80) {
+                    buf[count++] = (byte) c;
+                } else if (c < 0x800) {
+                    buf[count++] = (byte) (0xC0 | (c >> 6));
+                    buf[count++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                        int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                        buf[count++] = (byte) (0xF0 | (codePoint >> 18));
+                        buf[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                        buf[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                        buf[count++] = (byte) (0x80 | (codePoint & 0x3F));
+                    } else {
+                        buf[count++] = (byte) '?';
+                    }
+                } else {
+                    buf[count++] = (byte) (0xE0 | (c >> 12));
+                    buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buf[count++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        private static int utf8Length(String s) {
+            int length = s.length();
+            int utf8Length = length;
+            for (int i = 0; i < length; i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    continue;
+                }
+                if (c < 0x800) {
+                    utf8Length += 1;
+                } else if (Character.isSurrogate(c)) {
+                    if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                        utf8Length += 2;
+                        i++;
+                    }
+                } else {
+                    utf8Length += 2;
+                }
+            }
+            return utf8Length;
+        }
+
+        private void ensureCapacity(int n) throws IOException {
+            if (count + n <= buf.length) {
+                return;
+            }
+            if (outputStream != null) {
+                flush();
+                if (n <= buf.length) {
+                    return;
+                }
+            }
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + n));
+        }
+
+        void flush() throws IOException {
+            if (outputStream != null && count > 0) {
+                outputStream.write(buf, 0, count);
+                count = 0;
+            }
+        }
+    }
+
+    /**
+     * 解码输入
+     */
+    private static final class Input {
+
+        private final byte[] buf;
+        private int position;
+
+        Input(byte[] buf) throws IOException {
+            if (buf == null) {
+                throw new IOException("返回值为空");
+            }
+            this.buf = buf;
+        }
+
+        byte readByte() throws IOException {
+            require(1);
+            return buf[position++];
+        }
+
+        long readVarLong() throws IOException {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                v |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return (v >>> 1) ^ -(v & 1);
+                }
+            }
+            throw new IOException("返回值格式错误，变长整数过长");
+        }
+
+        int readFixedInt() throws IOException {
+            require(4);
+            return ((buf[position++] & 0xFF) << 24) | ((buf[position++] & 0xFF) << 16)
+                    | ((buf[position++] & 0xFF) << 8) | (buf[position++] & 0xFF);
+        }
+
+        long readFixedLong() throws IOException {
+            return ((long) readFixedInt() << 32) | (readFixedInt() & 0xFFFFFFFFL);
+        }
+
+        /**
+         * 读取长度，长度不能超过剩余字节数，防止错误数据导致分配过大的内存
+         */
+        int readLength() throws IOException {
+            long length = readVarLong();
+            if (length < 0 || length > buf.length - position) {
+                throw new IOException("返回值格式错误，长度无效：" + length);
+            }
+            return (int) length;
+        }
+
+        String readString() throws IOException {
+            int length = readLength();
+            String s = new String(buf, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return s;
+        }
+
+        byte[] readBytes(int length) throws IOException {
+            require(length);
+            byte[] bytes = Arrays.copyOfRange(buf, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        private void require(int n) throws IOException {
+            if (position + n > buf.length) {
+                throw new EOFException("返回值数据不完整");
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.servicedispatcher.result;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+
+/**
+ * json 编解码，UTF-8 编码
+ * 编码内容同 {@link Result#getJsonString()}。
+ * json 中 code、message 与 data 在同一层，解码后 data 中也包含 code、message。
+ */
+public class JsonResultCodec implements ResultCodec {
+
+    public static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] encode(Result result) {
+        return result.getJsonBytes();
+    }
+
+    @Override
+    public void encode(Result result, OutputStream outputStream) throws IOException {
+        result.writeJson(outputStream);
+    }
+
+    @Override
+    public Result decode(byte[] bytes) throws IOException {
+        JSONObject jsonObject;
+        try {
+            jsonObject = JSON.parseObject(bytes, JSONObject.class);
+        } catch (RuntimeException e) {
+            throw new IOException("返回值不是有效的json", e);
+        }
+        if (jsonObject == null) {
+            throw new IOException("返回值为空");
+        }
+        return Result.create(jsonObject.getString("code"), jsonObject.getString("message"))
+                .putAllData(new HashMap<>(jsonObject));
+    }
+}
@@ -1,7 +1,15 @@
 package com.example.servicedispatcher.result;
 
-import com.alibaba.fastjson.JSONObject;
-
+import com.alibaba.fastjson.JSONException;
+import com.alibaba.fastjson.annotation.JSONField;
+import com.alibaba.fastjson.serializer.JSONSerializer;
+import com.alibaba.fastjson.serializer.SerializeWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -28,6 +36,13 @@ public class Result {
         this.message = message;
     }
 
+    /**
+     * 按返回码创建，解码时使用
+     */
+    static Result create(String code, String message) {
+        return new Result(code, message);
+    }
+
     /**
      * 通过
      */
@@ -68,6 +83,15 @@ public class Result {
         return new Result("3", message);
     }
 
+    /**
+     * 是否为通过结果，data 中有 code 时以 data 中的为准，与 json 中的 code 一致
+     */
+    @JSONField(serialize = false)
+    public boolean isSuccess() {
+        Object jsonCode = this.data.containsKey("code") ? this.data.get("code") : this.code;
+        return jsonCode != null && "0".equals(jsonCode.toString());
+    }
+
     /**
      * 插入数据
      */
@@ -82,14 +106,93 @@ public class Result {
         return this;
     }
 
+    /**
+     * 转为 json 字符串
+     * json 中包含 data 的全部内容，data 中没有 code、message 时，再加上本对象的 code、message。不修改 data。
+     */
     public String getJsonString() {
+        SerializeWriter out = new SerializeWriter();
+        try {
+            writeJson(out);
+            return out.toString();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * 转为 UTF-8 编码的 json，内容同 {@link #getJsonString()}
+     * 直接由序列化缓冲区编码，不生成中间的 json 字符串。
+     */
+    public byte[] getJsonBytes() {
+        SerializeWriter out = new SerializeWriter();
+        try {
+            writeJson(out);
+            try {
+                return out.toBytes(StandardCharsets.UTF_8);
+            } catch (JSONException e) {
+                // 含不成对的代理字符时 fastjson 编码失败，改为按 String.getBytes 的规则替换为问号
+                return out.toString().getBytes(StandardCharsets.UTF_8);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * 将 json 直接写入调用方提供的 Writer，内容同 {@link #getJsonString()}
+     * 使用 fastjson 线程内复用的缓冲区，缓冲区满时写出，不会生成完整的 json 字符串。写完后 flush，不关闭 writer。
+     */
+    public void writeJson(Writer writer) throws IOException {
+        SerializeWriter out = new SerializeWriter(writer);
+        try {
+            writeJson(out);
+        } finally {
+            out.close();
+        }
+        writer.flush();
+    }
+
+    /**
+     * 将 json 按 UTF-8 编码直接写入调用方提供的 OutputStream，内容同 {@link #getJsonString()}
+     * 写完后 flush，不关闭 outputStream。
+     */
+    public void writeJson(OutputStream outputStream) throws IOException {
+        writeJson(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    private void writeJson(SerializeWriter out) {
+        JSONSerializer serializer = new JSONSerializer(out);
+        out.write('{');
+        boolean isFirst = true;
         if (!this.data.containsKey("code")) {
-            this.data.put("code", this.code);
+            isFirst = writeField(serializer, isFirst, "code", this.code);
         }
         if (!this.data.containsKey("message")) {
-            this.data.put("message", this.message);
+            isFirst = writeField(serializer, isFirst, "message", this.message);
+        }
+        for (Map.Entry<String, Object> entry : this.data.entrySet()) {
+            isFirst = writeField(serializer, isFirst, entry.getKey(), entry.getValue());
+        }
+        out.write('}');
+    }
+
+    /**
+     * 写入一个属性，值为空时不写入，与 fastjson 默认序列化 map 的方式一致
+     *
+     * @return 写入后是否仍是第一个属性
+     */
+    private static boolean writeField(JSONSerializer serializer, boolean isFirst, String key, Object value) {
+        if (value == null) {
+            return isFirst;
+        }
+        SerializeWriter out = serializer.out;
+        if (!isFirst) {
+            out.write(',');
         }
-        return JSONObject.toJSONString(this.data);
+        out.writeFieldName(key);
+        serializer.write(value);
+        return false;
     }
 
     public String getCode() {
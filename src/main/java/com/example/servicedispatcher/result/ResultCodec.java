@@ -0,0 +1,35 @@
+package com.example.servicedispatcher.result;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 返回值编解码
+ *
+ * 分发器按设置的编解码方式输出返回值，默认为 json。
+ * 实现类必须是线程安全的。
+ *
+ * @see com.example.servicedispatcher.ServiceDispatcher#setResultCodec
+ */
+public interface ResultCodec {
+
+    /**
+     * 编码后的内容类型，比如 application/json
+     */
+    String getContentType();
+
+    /**
+     * 编码为字节数组
+     */
+    byte[] encode(Result result) throws IOException;
+
+    /**
+     * 编码并直接写入调用方提供的 OutputStream，写完后 flush，不关闭 outputStream
+     */
+    void encode(Result result, OutputStream outputStream) throws IOException;
+
+    /**
+     * 从字节数组解码
+     */
+    Result decode(byte[] bytes) throws IOException;
+}
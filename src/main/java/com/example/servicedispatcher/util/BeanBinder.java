@@ -0,0 +1,273 @@
+package com.example.servicedispatcher.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译的 map 转 java 对象绑定器
+ *
+ * 每个类只创建一次：创建时解析构造器和属性，为每个属性生成 MethodHandle 赋值句柄。
+ * 绑定时按属性顺序依次从 map 中取值并赋值，不再反射读取属性。
+ * 基本类型属性使用对应基本类型的赋值句柄，拆箱后直接赋值，不再装箱。
+ */
+public class BeanBinder<T> {
+
+    /**
+     * 类型为 ()Object 的无参构造器句柄
+     */
+    private final MethodHandle constructor;
+    /**
+     * 属性赋值器，顺序为先当前类、后父类
+     */
+    private final FieldSetter[] fieldSetters;
+
+    private BeanBinder(MethodHandle constructor, FieldSetter[] fieldSetters) {
+        this.constructor = constructor;
+        this.fieldSetters = fieldSetters;
+    }
+
+    /**
+     * 创建绑定器
+     *
+     * @param clazz 目标对象的类型
+     * @param includeSuperClass 是否给父类的属性赋值。true，给父类的属性赋值；false，只给当前类的属性赋值。
+     */
+    static <T> BeanBinder<T> create(Class<T> clazz, boolean includeSuperClass) throws InstantiationException, IllegalAccessException {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle constructor;
+        try {
+            Constructor<T> c = clazz.getDeclaredConstructor();
+            c.setAccessible(true);
+            constructor = lookup.unreflectConstructor(c).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException e) {
+            InstantiationException ie = new InstantiationException(clazz.getName() + " 没有无参构造器");
+            ie.initCause(e);
+            throw ie;
+        }
+        List<FieldSetter> fieldSetters = new ArrayList<>();
+        Class<?> currentClass = clazz;
+        boolean allowLoop = true;
+        while (currentClass != null && currentClass != Object.class && allowLoop) {
+            for (Field field : currentClass.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+                    continue;
+                }
+                field.setAccessible(true);
+                fieldSetters.add(FieldSetter.create(field, lookup.unreflectSetter(field)));
+            }
+            currentClass = currentClass.getSuperclass();
+            allowLoop = includeSuperClass;
+        }
+        return new BeanBinder<>(constructor, fieldSetters.toArray(new FieldSetter[0]));
+    }
+
+    /**
+     * 创建对象并赋值
+     * map中的key和java对象的属性名相同，且值的类型与属性类型匹配时，赋值。
+     */
+    @SuppressWarnings("unchecked")
+    public T bind(Map<String, Object> map) throws InstantiationException {
+        try {
+            T obj = (T) (Object) constructor.invokeExact();
+            if (map == null || map.isEmpty()) {
+                return obj;
+            }
+            for (FieldSetter fieldSetter : fieldSetters) {
+                Object value = map.get(fieldSetter.key);
+                if (value != null) {
+                    fieldSetter.set(obj, value);
+                }
+            }
+            return obj;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            InstantiationException ie = new InstantiationException(t.getMessage());
+            ie.initCause(t);
+            throw ie;
+        }
+    }
+
+    /**
+     * 属性赋值器
+     * 值的类型与属性类型不匹配时，不赋值。
+     */
+    private abstract static class FieldSetter {
+
+        /**
+         * map中的key，即属性名
+         */
+        final String key;
+        /**
+         * 赋值句柄，第一个参数类型是 Object，第二个参数类型是属性类型（引用类型为 Object）
+         */
+        final MethodHandle setter;
+
+        FieldSetter(String key, MethodHandle setter) {
+            this.key = key;
+            this.setter = setter;
+        }
+
+        abstract void set(Object obj, Object value) throws Throwable;
+
+        static FieldSetter create(Field field, MethodHandle setter) {
+            String key = field.getName();
+            Class<?> type = field.getType();
+            if (type == int.class) {
+                return new IntSetter(key, setter.asType(MethodType.methodType(void.class, Object.class, int.class)));
+            } else if (type == long.class) {
+                return new LongSetter(key, setter.asType(MethodType.methodType(void.class, Object.class, long.class)));
+            } else if (type == double.class) {
+                return new DoubleSetter(key, setter.asType(MethodType.methodType(void.class, Object.class, double.class)));
+            } else if (type == float.class) {
+                return new FloatSetter(key, setter.asType(MethodType.methodType(void.class, Object.class, float.class)));
+            } else if (type == boolean.class) {
+                return new BooleanSetter(key, setter.asType(MethodType.methodType(void.class, Object.class, boolean.class)));
+            } else if (type == short.class) {
+                return new ShortSetter(key, setter.asType(MethodType.methodType(void.class, Object.class, short.class)));
+            } else if (type == byte.class) {
+                return new ByteSetter(key, setter.asType(MethodType.methodType(void.class, Object.class, byte.class)));
+            } else if (type == char.class) {
+                return new CharSetter(key, setter.asType(MethodType.methodType(void.class, Object.class, char.class)));
+            }
+            return new ObjectSetter(key, type, setter.asType(MethodType.methodType(void.class, Object.class, Object.class)));
+        }
+    }
+
+    private static final class ObjectSetter extends FieldSetter {
+
+        private final Class<?> type;
+
+        ObjectSetter(String key, Class<?> type, MethodHandle setter) {
+            super(key, setter);
+            this.type = type;
+        }
+
+        @Override
+        void set(Object obj, Object value) throws Throwable {
+            if (type.isInstance(value)) {
+                setter.invokeExact(obj, value);
+            }
+        }
+    }
+
+    private static final class IntSetter extends FieldSetter {
+
+        IntSetter(String key, MethodHandle setter) {
+            super(key, setter);
+        }
+
+        @Override
+        void set(Object obj, Object value) throws Throwable {
+            if (value instanceof Integer) {
+                setter.invokeExact(obj, ((Integer) value).intValue());
+            }
+        }
+    }
+
+    private static final class LongSetter extends FieldSetter {
+
+        LongSetter(String key, MethodHandle setter) {
+            super(key, setter);
+        }
+
+        @Override
+        void set(Object obj, Object value) throws Throwable {
+            if (value instanceof Long) {
+                setter.invokeExact(obj, ((Long) value).longValue());
+            }
+        }
+    }
+
+    private static final class DoubleSetter extends FieldSetter {
+
+        DoubleSetter(String key, MethodHandle setter) {
+            super(key, setter);
+        }
+
+        @Override
+        void set(Object obj, Object value) throws Throwable {
+            if (value instanceof Double) {
+                setter.invokeExact(obj, ((Double) value).doubleValue());
+            }
+        }
+    }
+
+    private static final class FloatSetter extends FieldSetter {
+
+        FloatSetter(String key, MethodHandle setter) {
+            super(key, setter);
+        }
+
+        @Override
+        void set(Object obj, Object value) throws Throwable {
+            if (value instanceof Float) {
+                setter.invokeExact(obj, ((Float) value).floatValue());
+            }
+        }
+    }
+
+    private static final class BooleanSetter extends FieldSetter {
+
+        BooleanSetter(String key, MethodHandle setter) {
+            super(key, setter);
+        }
+
+        @Override
+        void set(Object obj, Object value) throws Throwable {
+            if (value instanceof Boolean) {
+                setter.invokeExact(obj, ((Boolean) value).booleanValue());
+            }
+        }
+    }
+
+    private static final class ShortSetter extends FieldSetter {
+
+        ShortSetter(String key, MethodHandle setter) {
+            super(key, setter);
+        }
+
+        @Override
+        void set(Object obj, Object value) throws Throwable {
+            if (value instanceof Short) {
+                setter.invokeExact(obj, ((Short) value).shortValue());
+            }
+        }
+    }
+
+    private static final class ByteSetter extends FieldSetter {
+
+        ByteSetter(String key, MethodHandle setter) {
+            super(key, setter);
+        }
+
+        @Override
+        void set(Object obj, Object value) throws Throwable {
+            if (value instanceof Byte) {
+                setter.invokeExact(obj, ((Byte) value).byteValue());
+            }
+        }
+    }
+
+    private static final class CharSetter extends FieldSetter {
+
+        CharSetter(String key, MethodHandle setter) {
+            super(key, setter);
+        }
+
+        @Override
+        void set(Object obj, Object value) throws Throwable {
+            if (value instanceof Character) {
+                setter.invokeExact(obj, ((Character) value).charValue());
+            }
+        }
+    }
+}
@@ -1,41 +1,53 @@
 package com.example.servicedispatcher.util;
 
-import java.lang.reflect.Field;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class JavaBeanUtil {
 
+    /**
+     * 缓存绑定器，给父类的属性赋值
+     * key是目标对象的类型，value是对应的绑定器
+     */
+    private static final ConcurrentHashMap<Class<?>, BeanBinder<?>> beanBinderCache = new ConcurrentHashMap<>();
+    /**
+     * 缓存绑定器，只给当前类的属性赋值
+     * key是目标对象的类型，value是对应的绑定器
+     */
+    private static final ConcurrentHashMap<Class<?>, BeanBinder<?>> declaredBeanBinderCache = new ConcurrentHashMap<>();
+
     /**
      * 将map转为java对象
      *
-     * map中的key和java对象的属性名相同时，赋值。
-     * 私有属性也能赋值，通过反射爆破直接给属性赋值。
+     * map中的key和java对象的属性名相同时，赋值。基本类型属性接收对应的包装类型值。
+     * 私有属性也能赋值，通过 MethodHandle 直接给属性赋值。静态属性和 final 属性不赋值。
      *
      * @param map 数据源
      * @param clazz 目标对象的类型
      * @param includeSuperClass 是否给父类的属性赋值。true，给父类的属性赋值；false，只给当前类的属性赋值。
      */
     public static <T> T mapToBean(Map<String, Object> map, Class<T> clazz, boolean includeSuperClass) throws InstantiationException, IllegalAccessException {
-        T obj = clazz.newInstance();
-        if (map == null || map.isEmpty()) {
-            return obj;
-        }
-        Class<?> currentClass = clazz;
-        boolean allowLoop = true;
-        while (currentClass != null && currentClass != Object.class && allowLoop) {
-            Field[] fields = currentClass.getDeclaredFields();
-            for (Field field : fields) {
-                String fieldName = field.getName();
-                Object value = map.get(fieldName);
-                if (value != null && field.getType().isAssignableFrom(value.getClass())) {
-                    field.setAccessible(true);
-                    field.set(obj, value);
-                }
+        return getBeanBinder(clazz, includeSuperClass).bind(map);
+    }
+
+    /**
+     * 获取绑定器
+     * 每个类只创建一次，之后从缓存中获取。
+     *
+     * @see #mapToBean
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BeanBinder<T> getBeanBinder(Class<T> clazz, boolean includeSuperClass) throws InstantiationException, IllegalAccessException {
+        ConcurrentHashMap<Class<?>, BeanBinder<?>> cache = includeSuperClass ? beanBinderCache : declaredBeanBinderCache;
+        BeanBinder<T> beanBinder = (BeanBinder<T>) cache.get(clazz);
+        if (beanBinder == null) {
+            beanBinder = BeanBinder.create(clazz, includeSuperClass);
+            BeanBinder<T> old = (BeanBinder<T>) cache.putIfAbsent(clazz, beanBinder);
+            if (old != null) {
+                beanBinder = old;
             }
-            currentClass = currentClass.getSuperclass();
-            allowLoop = includeSuperClass;
         }
-        return obj;
+        return beanBinder;
     }
 
 }
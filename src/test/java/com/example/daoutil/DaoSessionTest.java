@@ -0,0 +1,285 @@
+package com.example.daoutil;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 会话中的操作与 withConnection 的事务，以及会话的语句缓存
+ */
+public class DaoSessionTest {
+
+    private JdbcDataSource dataSource;
+    /**
+     * 保持一个连接，避免内存数据库在测试中途被关闭
+     */
+    private Connection keepAlive;
+
+    @Before
+    public void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:dao_session_test;DB_CLOSE_DELAY=-1");
+        keepAlive = dataSource.getConnection();
+        try (Statement st = keepAlive.createStatement()) {
+            st.execute("drop table if exists t_order");
+            st.execute("create table t_order (id int primary key, name varchar(32))");
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        keepAlive.close();
+    }
+
+    @Test
+    public void rollbackCoversBatchChunks() throws Exception {
+        try {
+            DaoUtil.withConnection(dataSource, session -> {
+                session.batchUpdate("insert into t_order (id, name) values (?, ?)", rows(1, 5), 2);
+                // 主键重复，整个会话回滚
+                session.batchUpdate("insert into t_order (id, name) values (?, ?)", rows(5, 1), 2);
+                return null;
+            });
+            fail("主键重复时应抛出异常");
+        } catch (SQLException expected) {
+            // 预期的异常
+        }
+        assertEquals(0, count());
+    }
+
+    @Test
+    public void commitAfterAllOperationsSucceed() throws Exception {
+        DaoUtil.withConnection(dataSource, session -> {
+            session.batchUpdate("insert into t_order (id, name) values (?, ?)", rows(1, 5), 2);
+            session.prepareStatement("update t_order set name = 'x' where id = 1").executeUpdate();
+            return null;
+        });
+        assertEquals(5, count());
+    }
+
+    @Test
+    public void batchUpdateOnAutoCommitConnection() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            List<int[]> updateCounts = DaoUtil.withConnection(connection, DaoSession.DEFAULT_STATEMENT_CACHE_SIZE,
+                    session -> session.batchUpdate("insert into t_order (id, name) values (?, ?)", rows(1, 3), 2));
+            assertEquals(2, updateCounts.size());
+        }
+        assertEquals(3, count());
+    }
+
+    @Test
+    public void standaloneBatchUpdateCommitsEachChunk() throws Exception {
+        List<Object[]> params = rows(1, 4);
+        params.add(new Object[]{1, "dup"});
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        try {
+            DaoUtil.batchUpdate("insert into t_order (id, name) values (?, ?)", params, 2, connection);
+            fail("主键重复时应抛出异常");
+        } catch (SQLException expected) {
+            // 预期的异常
+        }
+        // 前两批已提交，失败的一批回滚
+        assertEquals(4, count());
+    }
+
+    @Test
+    public void batchUpdateReadsBeanFields() throws Exception {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Order order = new Order();
+            order.id = i;
+            order.name = "order" + i;
+            orders.add(order);
+        }
+        String[] fieldNames = {"id", "name"};
+        DaoUtil.withConnection(dataSource, session -> session.batchUpdate("insert into t_order (id, name) values (?, ?)", orders, fieldNames, 2));
+        // 第二次使用缓存的读取器
+        orders.forEach(order -> order.id += 10);
+        DaoUtil.batchUpdate("insert into t_order (id, name) values (?, ?)", orders, fieldNames, 0, dataSource.getConnection());
+        assertEquals(6, count());
+        try (Statement st = keepAlive.createStatement(); ResultSet rs = st.executeQuery("select name from t_order where id = 12")) {
+            rs.next();
+            assertEquals("order2", rs.getString(1));
+        }
+    }
+
+    @Test
+    public void batchUpdateReadsMixedSubclasses() throws Exception {
+        List<NamedRow> rows = new ArrayList<>();
+        Order order = new Order();
+        order.id = 1;
+        order.name = "order1";
+        rows.add(order);
+        Refund refund = new Refund();
+        refund.id = 2L;
+        refund.name = "refund2";
+        rows.add(refund);
+        Order another = new Order();
+        another.id = 3;
+        another.name = "order3";
+        rows.add(another);
+        DaoUtil.withConnection(dataSource, session -> session.batchUpdate("insert into t_order (id, name) values (?, ?)", rows, new String[]{"id", "name"}, 0));
+        assertEquals(3, count());
+        try (Statement st = keepAlive.createStatement(); ResultSet rs = st.executeQuery("select name from t_order where id = 2")) {
+            rs.next();
+            assertEquals("refund2", rs.getString(1));
+        }
+    }
+
+    @Test
+    public void batchUpdateRejectsNullBean() throws Exception {
+        List<Order> orders = new ArrayList<>();
+        orders.add(null);
+        orders.add(new Order());
+        try {
+            DaoUtil.batchUpdate("insert into t_order (id, name) values (?, ?)", orders, new String[]{"id", "name"}, 0, dataSource.getConnection());
+            fail("列表中有空对象时应抛出异常");
+        } catch (Exception e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("第 0 个对象为空"));
+        }
+        assertEquals(0, count());
+    }
+
+    @Test
+    public void searchByLongKey() throws Exception {
+        DaoUtil.withConnection(dataSource, session -> session.batchUpdate("insert into t_order (id, name) values (?, ?)", rows(1, 3), 0));
+        OrderRow row = DaoUtil.search("select id, name from t_order where id = ?", 2L, OrderRow.class, dataSource.getConnection());
+        assertEquals("order2", row.name);
+        List<OrderRow> rowList = DaoUtil.searchList("select id, name from t_order where id > ? order by id", 1L, OrderRow.class, dataSource.getConnection());
+        assertEquals(2, rowList.size());
+        assertEquals(Integer.valueOf(3), rowList.get(1).id);
+    }
+
+    @Test
+    public void sameSqlReusesStatement() throws Exception {
+        DaoUtil.withConnection(dataSource, session -> {
+            PreparedStatement first = session.prepareStatement("select id, name from t_order where id = ?");
+            assertSame(first, session.prepareStatement("select id, name from t_order where id = ?"));
+            assertNotSame(first, session.prepareStatement("select id, name from t_order where id > ?"));
+            return null;
+        });
+    }
+
+    @Test
+    public void leastRecentlyUsedStatementIsClosedAtLimit() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            DaoUtil.withConnection(connection, 2, session -> {
+                PreparedStatement a = session.prepareStatement("select 1");
+                PreparedStatement b = session.prepareStatement("select 2");
+                // 访问 a 后 b 成为最久未使用的语句
+                session.prepareStatement("select 1");
+                PreparedStatement c = session.prepareStatement("select 3");
+                assertTrue(b.isClosed());
+                assertFalse(a.isClosed());
+                assertFalse(c.isClosed());
+                return null;
+            });
+        }
+    }
+
+    @Test
+    public void sameSqlInsideSearchEachCallback() throws Exception {
+        DaoUtil.batchUpdate("insert into t_order (id, name) values (?, ?)", rows(1, 5), 0, dataSource.getConnection());
+        String sql = "select id, name from t_order where id >= ? order by id";
+        List<Integer> outerIds = new ArrayList<>();
+        List<Integer> innerSizes = new ArrayList<>();
+        DaoUtil.withConnection(dataSource, session -> {
+            session.searchEachTyped(sql, SqlParams.create(1).addInt(1), OrderRow.class, 0, row -> {
+                outerIds.add(row.id);
+                innerSizes.add(session.searchListTyped(sql, SqlParams.create(1).addInt(row.id), OrderRow.class).size());
+            });
+            return null;
+        });
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), outerIds);
+        assertEquals(Arrays.asList(5, 4, 3, 2, 1), innerSizes);
+    }
+
+    @Test
+    public void busyStatementIsNotClosedByEviction() throws Exception {
+        DaoUtil.batchUpdate("insert into t_order (id, name) values (?, ?)", rows(1, 3), 0, dataSource.getConnection());
+        List<Integer> outerIds = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            DaoUtil.withConnection(connection, 1, session -> {
+                session.searchEach("select id, name from t_order order by id", null, OrderRow.class, 0, row -> {
+                    outerIds.add(row.id);
+                    // 缓存上限为1，执行其他 sql 会把正在读取的语句移出缓存
+                    session.search("select id, name from t_order where id = ?", row.id, OrderRow.class);
+                });
+                return null;
+            });
+        }
+        assertEquals(Arrays.asList(1, 2, 3), outerIds);
+    }
+
+    @Test
+    public void callerConnectionStaysOpen() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            PreparedStatement[] cached = new PreparedStatement[1];
+            DaoUtil.withConnection(connection, DaoSession.DEFAULT_STATEMENT_CACHE_SIZE, session -> {
+                cached[0] = session.prepareStatement("select 1");
+                return null;
+            });
+            assertFalse(connection.isClosed());
+            assertTrue(cached[0].isClosed());
+        }
+    }
+
+    private static List<Object[]> rows(int firstId, int count) {
+        List<Object[]> params = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            params.add(new Object[]{firstId + i, "order" + (firstId + i)});
+        }
+        return params;
+    }
+
+    private int count() throws SQLException {
+        try (Statement st = keepAlive.createStatement(); ResultSet rs = st.executeQuery("select count(*) from t_order")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    public static class OrderRow {
+        private Integer id;
+        private String name;
+    }
+
+    public static class NamedRow {
+        String name;
+    }
+
+    /**
+     * name 属性在父类中
+     */
+    public static class Order extends NamedRow {
+        private int id;
+    }
+
+    /**
+     * 与 Order 同级的子类，id 属性类型不同
+     */
+    public static class Refund extends NamedRow {
+        private Long id;
+    }
+}
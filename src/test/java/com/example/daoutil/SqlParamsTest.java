@@ -0,0 +1,84 @@
+package com.example.daoutil;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 参数按值的类型选择 setXxx
+ */
+public class SqlParamsTest {
+
+    private static final Time TIME = new Time(3600000L);
+    private static final Date DATE = new Date(1700000000000L);
+    private static final Timestamp TIMESTAMP = new Timestamp(1700000000123L);
+    private static final java.util.Date UTIL_DATE = new java.util.Date(1700000000456L);
+    private static final Object[] VALUES = {1, 2L, 1.5D, 0.25F, true, "a", BigDecimal.ONE, DATE, TIME, TIMESTAMP, UTIL_DATE, null};
+    private static final List<String> SETTERS = Arrays.asList("setInt", "setLong", "setDouble", "setFloat", "setBoolean",
+            "setString", "setBigDecimal", "setDate", "setTime", "setTimestamp", "setTimestamp", "setNull");
+
+    @Test
+    public void addBindsByValueType() throws Exception {
+        List<String> calls = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        SqlParams.of(VALUES).bind(recordingStatement(calls, values));
+        assertEquals(SETTERS, calls);
+        assertEquals(0.25F, values.get(3));
+        assertEquals(TIME, values.get(8));
+    }
+
+    @Test
+    public void staticBindMatchesAdd() throws Exception {
+        List<String> calls = new ArrayList<>();
+        PreparedStatement pst = recordingStatement(calls, new ArrayList<>());
+        for (int i = 0; i < VALUES.length; i++) {
+            SqlParams.bind(pst, i + 1, VALUES[i]);
+        }
+        assertEquals(SETTERS, calls);
+    }
+
+    @Test
+    public void floatAndTimeRoundTrip() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:sql_params_test");
+        try (Connection keepAlive = dataSource.getConnection()) {
+            try (Statement st = keepAlive.createStatement()) {
+                st.execute("create table t_shift (id int primary key, start_time time, rate real)");
+            }
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(new Object[]{1, TIME, 0.1F});
+            DaoUtil.batchUpdate("insert into t_shift (id, start_time, rate) values (?, ?, ?)", rows, 0, dataSource.getConnection());
+            Shift shift = DaoUtil.searchTyped("select id, start_time, rate from t_shift where start_time = ? and rate = ?",
+                    SqlParams.of(TIME, 0.1F), Shift.class, dataSource.getConnection());
+            assertEquals(Integer.valueOf(1), shift.id);
+            // 原有调用传 null 参数集合时不产生重载歧义
+            assertEquals(1, DaoUtil.searchList("select id from t_shift", null, Shift.class, dataSource.getConnection()).size());
+        }
+    }
+
+    private static PreparedStatement recordingStatement(List<String> calls, List<Object> values) {
+        return (PreparedStatement) Proxy.newProxyInstance(SqlParamsTest.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    calls.add(method.getName());
+                    values.add(args == null || args.length < 2 ? null : args[1]);
+                    return null;
+                });
+    }
+
+    public static class Shift {
+        private Integer id;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.index;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 读取服务索引时跳过已不存在的类
+ */
+public class ServiceIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void staleEntryIsSkipped() throws Exception {
+        Set<Class<?>> classSet = loadWithIndex(
+                ServiceIndexTest.class.getName(),
+                "com.example.index.RemovedService",
+                "com.example.other.OtherService");
+        assertEquals(Collections.<Class<?>>singleton(ServiceIndexTest.class), classSet);
+    }
+
+    @Test
+    public void indexWithOnlyStaleEntriesFallsBackToScan() throws Exception {
+        assertNull(loadWithIndex("com.example.index.RemovedService"));
+    }
+
+    private Set<Class<?>> loadWithIndex(String... classNames) throws Exception {
+        File indexFile = new File(folder.getRoot(), ServiceIndex.INDEX_LOCATION + "test-services");
+        indexFile.getParentFile().mkdirs();
+        Files.write(indexFile.toPath(), Arrays.asList(classNames), StandardCharsets.UTF_8);
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{folder.getRoot().toURI().toURL()}, ServiceIndexTest.class.getClassLoader())) {
+            thread.setContextClassLoader(classLoader);
+            return ServiceIndex.load("test-services", "com.example.index");
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+    }
+}
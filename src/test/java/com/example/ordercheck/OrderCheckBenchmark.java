@@ -0,0 +1,105 @@
+package com.example.ordercheck;
+
+import com.example.ordercheck.dto.OrderCheckServiceDto;
+import com.example.ordercheck.entity.CpoeOrderCheckRule;
+import com.example.ordercheck.result.Result;
+import com.example.ordercheck.rule.OrderCheckExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 医嘱校验的基准：逐条调用 check 与一次调用 checkBatch
+ *
+ * 每条规则模拟一次数据库查询的固定开销，逐条校验时每条医嘱查询一次，批量校验时每批查询一次。
+ * 运行：
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test.cp -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test.cp) com.example.ordercheck.OrderCheckBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderCheckBenchmark {
+
+    private static final String SOURCE_TYPE = "benchmark";
+    private static final int RULE_COUNT = 5;
+    /**
+     * 模拟一次查询消耗的 CPU
+     */
+    private static final long QUERY_TOKENS = 2000;
+
+    /**
+     * 模拟查询数据库的规则，全部通过
+     */
+    public static class QueryRule implements OrderCheckExecutor {
+        @Override
+        public void check(OrderCheckServiceDto paramDto, Result result) {
+            Blackhole.consumeCPU(QUERY_TOKENS);
+        }
+
+        @Override
+        public void checkBatch(List<OrderCheckServiceDto> paramDtoList, List<Result> resultList) {
+            Blackhole.consumeCPU(QUERY_TOKENS);
+        }
+    }
+
+    @Param({"1", "20", "100"})
+    private int orderCount;
+
+    private List<OrderCheckServiceDto> paramDtoList;
+
+    @Setup
+    public void setUp() throws Exception {
+        List<CpoeOrderCheckRule> ruleList = new ArrayList<>(RULE_COUNT);
+        for (int i = 0; i < RULE_COUNT; i++) {
+            CpoeOrderCheckRule rule = new CpoeOrderCheckRule();
+            rule.setRuleName("rule" + i);
+            rule.setClassName(QueryRule.class.getName());
+            rule.setOpType(SOURCE_TYPE);
+            rule.setOrdinal(String.valueOf(i));
+            ruleList.add(rule);
+        }
+        OrderCheckManager.loadRules(ruleList);
+        paramDtoList = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            OrderCheckServiceDto paramDto = new OrderCheckServiceDto();
+            paramDto.sourceType = SOURCE_TYPE;
+            paramDto.sysId = String.valueOf(i);
+            paramDtoList.add(paramDto);
+        }
+    }
+
+    @Benchmark
+    public void checkEach(Blackhole blackhole) throws Exception {
+        for (OrderCheckServiceDto paramDto : paramDtoList) {
+            blackhole.consume(OrderCheckManager.check(paramDto));
+        }
+    }
+
+    @Benchmark
+    public List<Result> checkBatch() throws Exception {
+        return OrderCheckManager.checkBatch(paramDtoList);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(OrderCheckBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.ordercheck;
+
+import com.example.ordercheck.dto.OrderCheckServiceDto;
+import com.example.ordercheck.entity.CpoeOrderCheckRule;
+import com.example.ordercheck.metrics.OrderCheckMetrics;
+import com.example.ordercheck.metrics.RuleStats;
+import com.example.ordercheck.result.Result;
+import com.example.ordercheck.rule.OrderCheckExecutor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * 规则按 ordinal 排序，批量校验按规则顺序执行
+ */
+public class OrderCheckManagerTest {
+
+    /**
+     * 桩执行器，sysId 中包含规则名时不通过，通过时在 data 中记录 sysId
+     * 每次 checkBatch 调用记录为“规则名:sysId,sysId”。
+     */
+    public abstract static class StubRule implements OrderCheckExecutor {
+        static final List<String> batchCalls = Collections.synchronizedList(new ArrayList<>());
+
+        abstract String name();
+
+        @Override
+        public void check(OrderCheckServiceDto paramDto, Result result) {
+            if (paramDto.sysId.contains(name())) {
+                result.setCode("3");
+                result.setMessage(name() + " 不通过");
+            } else {
+                result.getData().put(name(), paramDto.sysId);
+            }
+        }
+
+        @Override
+        public void checkBatch(List<OrderCheckServiceDto> paramDtoList, List<Result> resultList) throws Exception {
+            List<String> sysIds = new ArrayList<>();
+            for (OrderCheckServiceDto paramDto : paramDtoList) {
+                sysIds.add(paramDto.sysId);
+            }
+            batchCalls.add(name() + ":" + String.join(",", sysIds));
+            OrderCheckExecutor.super.checkBatch(paramDtoList, resultList);
+        }
+    }
+
+    public static class RuleA extends StubRule {
+        @Override
+        String name() {
+            return "A";
+        }
+    }
+
+    public static class RuleB extends StubRule {
+        @Override
+        String name() {
+            return "B";
+        }
+    }
+
+    public static class RuleC extends StubRule {
+        @Override
+        String name() {
+            return "C";
+        }
+    }
+
+    public static class ThrowingRule extends StubRule {
+        @Override
+        String name() {
+            return "T";
+        }
+
+        @Override
+        public void checkBatch(List<OrderCheckServiceDto> paramDtoList, List<Result> resultList) throws Exception {
+            super.checkBatch(paramDtoList, resultList);
+            throw new Exception("规则执行失败");
+        }
+    }
+
+    @Before
+    public void setUp() {
+        StubRule.batchCalls.clear();
+    }
+
+    @Test
+    public void mixedOrdinalsHaveTotalOrder() {
+        List<CpoeOrderCheckRule> ruleList = new ArrayList<>();
+        for (String ordinal : Arrays.asList("1a", "10", "2", null, " 7 ", "b", "-1")) {
+            ruleList.add(rule("A", ordinal));
+        }
+        List<CpoeOrderCheckRule> sorted = OrderCheckManager.createOpTypeAndRuleListMap(ruleList).get("A");
+        assertEquals(Arrays.asList("-1", "2", " 7 ", "10", null, "1a", "b"), ordinals(sorted));
+    }
+
+    @Test
+    public void largeMixedListSortsWithoutContractViolation() {
+        List<CpoeOrderCheckRule> ruleList = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ruleList.add(rule("A", String.valueOf(i)));
+            ruleList.add(rule("A", i + "a"));
+        }
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            Collections.shuffle(ruleList, random);
+            List<CpoeOrderCheckRule> sorted = OrderCheckManager.createOpTypeAndRuleListMap(ruleList).get("A");
+            for (int i = 0; i < 200; i++) {
+                assertEquals(String.valueOf(i), sorted.get(i).getOrdinal());
+            }
+            for (int i = 201; i < sorted.size(); i++) {
+                assertEquals(-1, Integer.signum(sorted.get(i - 1).getOrdinal().compareTo(sorted.get(i).getOrdinal())));
+            }
+        }
+    }
+
+    @Test
+    public void batchResultsFollowInputOrderAcrossSourceTypes() throws Exception {
+        OrderCheckManager.loadRules(Arrays.asList(
+                rule("A", RuleA.class, "orderX,orderY", "1", null),
+                rule("B", RuleB.class, "orderX", "2", null),
+                rule("C", RuleC.class, "orderY", "2", null)));
+        List<OrderCheckServiceDto> paramDtoList = Arrays.asList(
+                dto("orderX", "x0"), dto("orderY", "y1"), dto("orderX", "x2-A"), dto("orderY", "y3-C"), dto("orderX", "x4"));
+        List<Result> resultList = OrderCheckManager.checkBatch(paramDtoList);
+        assertEquals(5, resultList.size());
+        assertEquals(Arrays.asList("1", "1", "3", "3", "1"), codes(resultList));
+        assertEquals("x0", resultList.get(0).getData().get("B"));
+        assertEquals("y1", resultList.get(1).getData().get("C"));
+        assertEquals("A 不通过", resultList.get(2).getMessage());
+        assertEquals("C 不通过", resultList.get(3).getMessage());
+        assertEquals("x4", resultList.get(4).getData().get("B"));
+        // 每个 sourceType 的每条规则只调用一次 checkBatch，医嘱按入参顺序传入
+        List<String> batchCalls = new ArrayList<>(StubRule.batchCalls);
+        Collections.sort(batchCalls);
+        assertEquals(Arrays.asList("A:x0,x2-A,x4", "A:y1,y3-C", "B:x0,x4", "C:y1,y3-C"), batchCalls);
+    }
+
+    @Test
+    public void failedOrdersDropOutBeforeLaterSteps() throws Exception {
+        OrderCheckManager.loadRules(Arrays.asList(
+                rule("A", RuleA.class, "dropOut", "1", null),
+                rule("B", RuleB.class, "dropOut", "2", null),
+                rule("C", RuleC.class, "dropOut", "3", null)));
+        List<Result> resultList = OrderCheckManager.checkBatch(Arrays.asList(
+                dto("dropOut", "o0-B"), dto("dropOut", "o1"), dto("dropOut", "o2-A"), dto("dropOut", "o3-C")));
+        assertEquals(Arrays.asList("3", "1", "3", "3"), codes(resultList));
+        assertEquals(Arrays.asList("A:o0-B,o1,o2-A,o3-C", "B:o0-B,o1,o3-C", "C:o1,o3-C"), StubRule.batchCalls);
+
+        // 全部不通过时不再执行后续规则
+        StubRule.batchCalls.clear();
+        OrderCheckManager.checkBatch(Arrays.asList(dto("dropOut", "o4-A"), dto("dropOut", "o5-A")));
+        assertEquals(Collections.singletonList("A:o4-A,o5-A"), StubRule.batchCalls);
+    }
+
+    @Test
+    public void limitLevelIsSetByFailingStep() throws Exception {
+        OrderCheckManager.loadRules(Arrays.asList(
+                rule("A", RuleA.class, "limitLevel", "1", "2"),
+                rule("B", RuleB.class, "limitLevel", "2", "0"),
+                rule("C", RuleC.class, "limitLevel", "3", null)));
+        List<Result> resultList = OrderCheckManager.checkBatch(Arrays.asList(
+                dto("limitLevel", "o0-A"), dto("limitLevel", "o1-B"), dto("limitLevel", "o2-C"), dto("limitLevel", "o3")));
+        // 没有限制级别时沿用执行器设置的返回码
+        assertEquals(Arrays.asList("2", "0", "3", "1"), codes(resultList));
+        assertEquals(Long.valueOf(1), stats("limitLevel", "A").getFailCodeCount().get("2"));
+        assertEquals(Long.valueOf(1), stats("limitLevel", "B").getFailCodeCount().get("0"));
+        assertEquals(Long.valueOf(1), stats("limitLevel", "C").getFailCodeCount().get("3"));
+        RuleStats first = stats("limitLevel", "A");
+        assertEquals(4, first.getInvocationCount());
+        assertEquals(3, first.getPassCount());
+        assertEquals(1, first.getFailCount());
+    }
+
+    @Test
+    public void executorErrorIsRecordedAndStopsBatch() throws Exception {
+        OrderCheckManager.loadRules(Arrays.asList(
+                rule("T", ThrowingRule.class, "error", "1", null),
+                rule("B", RuleB.class, "error", "2", null)));
+        try {
+            OrderCheckManager.checkBatch(Arrays.asList(dto("error", "o0"), dto("error", "o1")));
+            fail("执行器抛出的异常应传给调用方");
+        } catch (Exception e) {
+            assertEquals("规则执行失败", e.getMessage());
+        }
+        assertEquals(Collections.singletonList("T:o0,o1"), StubRule.batchCalls);
+        RuleStats stats = stats("error", "T");
+        assertEquals(1, stats.getErrorCount());
+        assertEquals(0, stats.getPassCount());
+        assertEquals(0, stats("error", "B").getInvocationCount());
+    }
+
+    private static CpoeOrderCheckRule rule(String ruleName, Class<? extends OrderCheckExecutor> executorClass, String opType, String ordinal, String limitLevel) {
+        CpoeOrderCheckRule rule = rule(opType, ordinal);
+        rule.setRuleName(ruleName);
+        rule.setClassName(executorClass.getName());
+        rule.setLimitLevel(limitLevel);
+        return rule;
+    }
+
+    private static OrderCheckServiceDto dto(String sourceType, String sysId) {
+        OrderCheckServiceDto paramDto = new OrderCheckServiceDto();
+        paramDto.sourceType = sourceType;
+        paramDto.sysId = sysId;
+        return paramDto;
+    }
+
+    private static List<String> codes(List<Result> resultList) {
+        List<String> codes = new ArrayList<>();
+        for (Result result : resultList) {
+            codes.add(result.getCode());
+        }
+        return codes;
+    }
+
+    /**
+     * 规则统计，规则没有执行过时各项为0
+     */
+    private static RuleStats stats(String sourceType, String ruleName) {
+        OrderCheckMetrics.getInstance().getRuleMetrics(sourceType, ruleName);
+        for (RuleStats stats : OrderCheckMetrics.getInstance().getRuleStats()) {
+            if (sourceType.equals(stats.getSourceType()) && ruleName.equals(stats.getRuleName())) {
+                return stats;
+            }
+        }
+        throw new AssertionError("没有 " + sourceType + ":" + ruleName + " 的统计");
+    }
+
+    private static CpoeOrderCheckRule rule(String opType, String ordinal) {
+        CpoeOrderCheckRule rule = new CpoeOrderCheckRule();
+        rule.setRuleName(opType + ordinal);
+        rule.setOpType(opType);
+        rule.setOrdinal(ordinal);
+        return rule;
+    }
+
+    private static List<String> ordinals(List<CpoeOrderCheckRule> ruleList) {
+        List<String> ordinals = new ArrayList<>();
+        for (CpoeOrderCheckRule rule : ruleList) {
+            ordinals.add(rule.getOrdinal());
+        }
+        return ordinals;
+    }
+}
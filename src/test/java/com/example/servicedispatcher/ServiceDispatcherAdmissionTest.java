@@ -0,0 +1,53 @@
+package com.example.servicedispatcher;
+
+import com.example.servicedispatcher.annotation.CacheableResult;
+import com.example.servicedispatcher.annotation.MethodName;
+import com.example.servicedispatcher.result.Result;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 命中结果缓存的调用不经过准入限制
+ */
+public class ServiceDispatcherAdmissionTest {
+
+    public static class LookupService {
+        static final AtomicInteger calls = new AtomicInteger();
+
+        @MethodName(value = "lookup", permitsPerSecond = 1)
+        @CacheableResult
+        public Result lookup(String code) {
+            calls.incrementAndGet();
+            return Result.success(code);
+        }
+
+        @MethodName(value = "limited", permitsPerSecond = 1)
+        public Result limited() {
+            return Result.success();
+        }
+    }
+
+    @Test
+    public void cacheHitsDoNotUseRateTokens() throws Exception {
+        HashMap<String, Object> paramMap = new HashMap<>();
+        paramMap.put("code", "A");
+        for (int i = 0; i < 5; i++) {
+            assertTrue(ServiceDispatcher.execute(LookupService.class, "lookup", paramMap).contains("\"code\":\"0\""));
+        }
+        assertEquals(1, LookupService.calls.get());
+        // 未命中时仍受每秒调用数限制
+        paramMap.put("code", "B");
+        assertTrue(ServiceDispatcher.execute(LookupService.class, "lookup", paramMap).contains("调用过于频繁"));
+    }
+
+    @Test
+    public void uncachedMethodIsStillLimited() throws Exception {
+        assertTrue(ServiceDispatcher.execute(LookupService.class, "limited", null).contains("\"code\":\"0\""));
+        assertTrue(ServiceDispatcher.execute(LookupService.class, "limited", null).contains("调用过于频繁"));
+    }
+}
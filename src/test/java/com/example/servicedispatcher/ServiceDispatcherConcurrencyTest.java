@@ -0,0 +1,163 @@
+package com.example.servicedispatcher;
+
+import com.example.servicedispatcher.annotation.InjectType;
+import com.example.servicedispatcher.annotation.MethodName;
+import com.example.servicedispatcher.bulkhead.BulkheadConfig;
+import com.example.servicedispatcher.inject.DependencyProvider;
+import com.example.servicedispatcher.inject.DependencyRegistry;
+import com.example.servicedispatcher.result.Result;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 并发首次调用时服务对象只创建、注入一次，创建失败时不缓存；替换线程池时正在提交的异步调用不被拒绝
+ */
+public class ServiceDispatcherConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    public static class Dependency {
+    }
+
+    public static class ColdService {
+        static final AtomicInteger constructorCount = new AtomicInteger();
+
+        @InjectType
+        private Dependency dependency;
+
+        public ColdService() {
+            constructorCount.incrementAndGet();
+            try {
+                // 放大并发创建的时间窗口
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @MethodName("ping")
+        public Result ping() {
+            return dependency == null ? Result.fail("未注入") : Result.success("pong");
+        }
+    }
+
+    public static class FlakyService {
+        static final AtomicInteger constructorCount = new AtomicInteger();
+
+        public FlakyService() {
+            if (constructorCount.incrementAndGet() == 1) {
+                throw new IllegalStateException("首次创建失败");
+            }
+        }
+
+        @MethodName("ping")
+        public Result ping() {
+            return Result.success("pong");
+        }
+    }
+
+    public static class AsyncService {
+        @MethodName("ping")
+        public Result ping() {
+            return Result.success("pong");
+        }
+    }
+
+    private final AtomicInteger injectionCount = new AtomicInteger();
+    private final DependencyProvider provider = (type, name, qualified) -> {
+        if (type == Dependency.class) {
+            injectionCount.incrementAndGet();
+            return new Dependency();
+        }
+        return null;
+    };
+
+    @Before
+    public void setUp() {
+        DependencyRegistry.addProvider(provider);
+    }
+
+    @After
+    public void tearDown() {
+        DependencyRegistry.removeProvider(provider);
+    }
+
+    @Test
+    public void concurrentFirstCallsCreateServiceOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return ServiceDispatcher.execute(ColdService.class, "ping", null);
+                }));
+            }
+            start.countDown();
+            for (Future<String> future : futures) {
+                assertTrue(future.get(30, TimeUnit.SECONDS).contains("pong"));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, ColdService.constructorCount.get());
+        assertEquals(1, injectionCount.get());
+    }
+
+    @Test
+    public void failedCreationIsNotCached() throws Exception {
+        String first = ServiceDispatcher.execute(FlakyService.class, "ping", null);
+        assertTrue(first.contains("\"code\":\"3\""));
+        String second = ServiceDispatcher.execute(FlakyService.class, "ping", null);
+        assertTrue(second.contains("pong"));
+        assertEquals(2, FlakyService.constructorCount.get());
+    }
+
+    @Test
+    public void reconfigureBulkheadWhileSubmitting() throws Exception {
+        BulkheadConfig config = new BulkheadConfig(4, 10000, 0, BulkheadConfig.RejectPolicy.FAIL);
+        ServiceDispatcher.configureBulkhead(AsyncService.class, config);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<CompletableFuture<String>>>> clients = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                clients.add(pool.submit(() -> {
+                    start.await();
+                    List<CompletableFuture<String>> results = new ArrayList<>();
+                    for (int j = 0; j < 500; j++) {
+                        results.add(ServiceDispatcher.executeAsync(AsyncService.class, "ping", null));
+                    }
+                    return results;
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < 50; i++) {
+                ServiceDispatcher.configureBulkhead(AsyncService.class, config);
+                Thread.sleep(1);
+            }
+            for (Future<List<CompletableFuture<String>>> client : clients) {
+                for (CompletableFuture<String> result : client.get(30, TimeUnit.SECONDS)) {
+                    assertTrue(result.get(30, TimeUnit.SECONDS).contains("pong"));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
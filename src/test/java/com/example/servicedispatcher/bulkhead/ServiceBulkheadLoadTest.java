@@ -0,0 +1,113 @@
+package com.example.servicedispatcher.bulkhead;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 线程池与虚拟线程的负载对比
+ *
+ * 固定数量的调用方循环提交阻塞任务（模拟数据库访问）并等待结果，调用方数量等于同时执行的调用数上限，两种方式都不应拒绝。
+ * 对比新增的平台线程数，吞吐量对比不在单元测试中做。虚拟线程只在 JDK 21 及以上运行，低版本 JDK 跳过对比。
+ */
+public class ServiceBulkheadLoadTest {
+
+    private static final int CONCURRENCY = 100;
+    private static final int CALLS_PER_CLIENT = 20;
+    private static final long BLOCK_MILLIS = 5;
+
+    private static class PoolService {
+    }
+
+    private static class VirtualService {
+    }
+
+    @Test
+    public void threadPoolCompletesAllCalls() throws Exception {
+        LoadResult result = runLoad(PoolService.class, BulkheadConfig.ExecutionMode.THREAD_POOL);
+        assertEquals(CONCURRENCY * CALLS_PER_CLIENT, result.successCount);
+    }
+
+    @Test
+    public void virtualThreadsUseFewerPlatformThreads() throws Exception {
+        Assume.assumeTrue("当前 JDK 不支持虚拟线程", VirtualThreads.isSupported());
+        // 先各运行一次预热，第二次的结果用于对比
+        runLoad(VirtualService.class, BulkheadConfig.ExecutionMode.VIRTUAL_THREAD);
+        runLoad(PoolService.class, BulkheadConfig.ExecutionMode.THREAD_POOL);
+        LoadResult virtual = runLoad(VirtualService.class, BulkheadConfig.ExecutionMode.VIRTUAL_THREAD);
+        LoadResult pool = runLoad(PoolService.class, BulkheadConfig.ExecutionMode.THREAD_POOL);
+        assertEquals(CONCURRENCY * CALLS_PER_CLIENT, virtual.successCount);
+        assertEquals(CONCURRENCY * CALLS_PER_CLIENT, pool.successCount);
+        assertTrue("虚拟线程模式新增平台线程 " + virtual.newPlatformThreads + "，线程池模式 " + pool.newPlatformThreads,
+                virtual.newPlatformThreads < pool.newPlatformThreads);
+    }
+
+    private static LoadResult runLoad(Class<?> serviceClass, BulkheadConfig.ExecutionMode mode) throws Exception {
+        ServiceBulkhead bulkhead = new ServiceBulkhead(serviceClass,
+                new BulkheadConfig(CONCURRENCY, CONCURRENCY, 0, BulkheadConfig.RejectPolicy.FAIL, mode));
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        // 调用方线程提前创建，不计入新增的平台线程
+        CountDownLatch ready = new CountDownLatch(CONCURRENCY);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(CONCURRENCY);
+        AtomicInteger successCount = new AtomicInteger();
+        List<Thread> clients = new ArrayList<>(CONCURRENCY);
+        for (int i = 0; i < CONCURRENCY; i++) {
+            Thread client = new Thread(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                    for (int n = 0; n < CALLS_PER_CLIENT; n++) {
+                        CompletableFuture<String> future = bulkhead.submit(() -> {
+                            Thread.sleep(BLOCK_MILLIS);
+                            return "ok";
+                        });
+                        if ("ok".equals(future.get(10, TimeUnit.SECONDS))) {
+                            successCount.incrementAndGet();
+                        }
+                    }
+                } catch (Exception e) {
+                    // 计入失败，由断言报告
+                } finally {
+                    done.countDown();
+                }
+            });
+            client.setDaemon(true);
+            client.start();
+            clients.add(client);
+        }
+        ready.await();
+        int baseThreads = threadMXBean.getThreadCount();
+        threadMXBean.resetPeakThreadCount();
+        start.countDown();
+        done.await(60, TimeUnit.SECONDS);
+        int newPlatformThreads = threadMXBean.getPeakThreadCount() - baseThreads;
+        bulkhead.shutdown();
+        for (Thread client : clients) {
+            client.join();
+        }
+        return new LoadResult(successCount.get(), newPlatformThreads);
+    }
+
+    private static class LoadResult {
+
+        private final int successCount;
+        private final int newPlatformThreads;
+
+        LoadResult(int successCount, int newPlatformThreads) {
+            this.successCount = successCount;
+            this.newPlatformThreads = newPlatformThreads;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.servicedispatcher.bulkhead;
+
+import com.example.servicedispatcher.metrics.BulkheadStats;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 虚拟线程模式在不支持虚拟线程的 JDK 上改用线程池，以及许可数限制同时执行的调用数
+ */
+public class ServiceBulkheadTest {
+
+    private static final String BUSY = "服务繁忙";
+
+    private static class FallbackService {
+    }
+
+    private static class CurrentJdkService {
+    }
+
+    private static class PermitService {
+    }
+
+    @Test
+    public void virtualThreadModeFallsBackToThreadPool() throws Exception {
+        // 模拟 Java 8，不支持虚拟线程
+        ServiceBulkhead bulkhead = new ServiceBulkhead(FallbackService.class, virtualConfig(2), () -> null);
+        assertFalse(bulkhead.isVirtualThread());
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            // 2 个线程执行，1 个在队列中等待
+            for (int i = 0; i < 3; i++) {
+                futures.add(bulkhead.submit(() -> blockUntil(release)));
+            }
+            assertTrue(bulkhead.submit(() -> "ok").get().contains(BUSY));
+            release.countDown();
+            for (CompletableFuture<String> future : futures) {
+                assertEquals("ok", future.get(10, TimeUnit.SECONDS));
+            }
+            BulkheadStats stats = bulkhead.getMetrics().getStats();
+            assertEquals(1, stats.getQueueCapacity());
+            assertEquals(3, stats.getSubmittedCount());
+            assertEquals(1, stats.getRejectedCount());
+        } finally {
+            release.countDown();
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    public void virtualThreadModeOnCurrentJdk() throws Exception {
+        ServiceBulkhead bulkhead = new ServiceBulkhead(CurrentJdkService.class, virtualConfig(2));
+        try {
+            assertEquals(VirtualThreads.isSupported(), bulkhead.isVirtualThread());
+            assertEquals("ok", bulkhead.submit(() -> "ok").get(10, TimeUnit.SECONDS));
+        } finally {
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    public void permitsLimitConcurrentCalls() throws Exception {
+        // 用不限线程数的线程池代替虚拟线程执行器，在任何 JDK 上检查许可数
+        ServiceBulkhead bulkhead = new ServiceBulkhead(PermitService.class, virtualConfig(2), Executors::newCachedThreadPool);
+        assertTrue(bulkhead.isVirtualThread());
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> first = bulkhead.submit(() -> blockUntil(release));
+            CompletableFuture<String> second = bulkhead.submit(() -> blockUntil(release));
+            // 许可用完时不排队，直接拒绝
+            assertTrue(bulkhead.submit(() -> "ok").get().contains(BUSY));
+            assertEquals(2, bulkhead.getMetrics().getStats().getActiveThreads());
+            release.countDown();
+            assertEquals("ok", first.get(10, TimeUnit.SECONDS));
+            assertEquals("ok", second.get(10, TimeUnit.SECONDS));
+            // 结果返回前已归还许可
+            assertEquals("ok", bulkhead.submit(() -> "ok").get(10, TimeUnit.SECONDS));
+            BulkheadStats stats = bulkhead.getMetrics().getStats();
+            assertEquals(0, stats.getQueueCapacity());
+            assertEquals(3, stats.getSubmittedCount());
+            assertEquals(1, stats.getRejectedCount());
+        } finally {
+            release.countDown();
+            bulkhead.shutdown();
+        }
+    }
+
+    private static BulkheadConfig virtualConfig(int threads) {
+        return new BulkheadConfig(threads, 1, 0, BulkheadConfig.RejectPolicy.FAIL, BulkheadConfig.ExecutionMode.VIRTUAL_THREAD);
+    }
+
+    private static String blockUntil(CountDownLatch release) throws InterruptedException {
+        release.await(10, TimeUnit.SECONDS);
+        return "ok";
+    }
+}
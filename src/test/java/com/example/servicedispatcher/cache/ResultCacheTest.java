@@ -0,0 +1,222 @@
+package com.example.servicedispatcher.cache;
+
+import com.example.servicedispatcher.metrics.DispatcherMetrics;
+import com.example.servicedispatcher.metrics.ResultCacheStats;
+import com.example.servicedispatcher.result.Result;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 结果缓存的准入、淘汰、失效和并发加载
+ */
+public class ResultCacheTest {
+
+    @Test
+    public void successResultIsCached() throws Exception {
+        ResultCache cache = new ResultCache(ResultCacheTest.class.getName(), "success", 16, 60);
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            String json = cache.get("k", () -> {
+                calls.incrementAndGet();
+                return Result.success("ok");
+            });
+            assertEquals(Result.success("ok").getJsonString(), json);
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void failResultIsNotCached() throws Exception {
+        ResultCache cache = new ResultCache(ResultCacheTest.class.getName(), "fail", 16, 60);
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            String json = cache.get("k", () -> {
+                calls.incrementAndGet();
+                return Result.fail("下游不可用");
+            });
+            assertEquals(Result.fail("下游不可用").getJsonString(), json);
+        }
+        assertEquals(3, calls.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void codeInDataDecidesAdmission() throws Exception {
+        ResultCache cache = new ResultCache(ResultCacheTest.class.getName(), "dataCode", 16, 60);
+        cache.get("k", () -> Result.success().putData("code", "2"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void unserializableParamHasNoKey() {
+        HashMap<String, Object> paramMap = new HashMap<>();
+        paramMap.put("bean", new Object() {
+            public String getValue() {
+                throw new IllegalStateException("不能序列化");
+            }
+        });
+        assertNull(ResultCache.key(paramMap));
+    }
+
+    @Test
+    public void expiredResultIsReloaded() throws Exception {
+        ResultCache cache = new ResultCache(ResultCacheTest.class.getName(), "expire", 16, 1);
+        AtomicInteger calls = new AtomicInteger();
+        cache.get("k", () -> loadSuccess(calls));
+        cache.get("k", () -> loadSuccess(calls));
+        assertEquals(1, calls.get());
+        Thread.sleep(1100);
+        cache.get("k", () -> loadSuccess(calls));
+        assertEquals(2, calls.get());
+        ResultCacheStats stats = stats("expire");
+        assertEquals(1, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(1, stats.getEvictionCount());
+    }
+
+    @Test
+    public void sizeBoundAdmitsByFrequency() throws Exception {
+        ResultCache cache = new ResultCache(ResultCacheTest.class.getName(), "admit", 2, 60);
+        HashMap<String, AtomicInteger> calls = new HashMap<>();
+        for (String key : new String[]{"hot", "warm", "cold", "rising"}) {
+            calls.put(key, new AtomicInteger());
+        }
+        for (int i = 0; i < 5; i++) {
+            get(cache, "hot", calls);
+        }
+        for (int i = 0; i < 5; i++) {
+            get(cache, "warm", calls);
+        }
+        // 只访问一次的结果频率低于最久未访问的 hot，不准入
+        get(cache, "cold", calls);
+        assertEquals(2, cache.size());
+        get(cache, "hot", calls);
+        get(cache, "warm", calls);
+        assertEquals(1, calls.get("hot").get());
+        assertEquals(1, calls.get("warm").get());
+
+        // 访问顺序为 hot、warm，hot 的频率为6。rising 第7次访问时频率超过 hot，准入并淘汰 hot
+        for (int i = 0; i < 6; i++) {
+            get(cache, "rising", calls);
+            assertEquals(2, cache.size());
+        }
+        assertEquals(6, calls.get("rising").get());
+        get(cache, "rising", calls);
+        get(cache, "rising", calls);
+        assertEquals(7, calls.get("rising").get());
+        get(cache, "warm", calls);
+        assertEquals(1, calls.get("warm").get());
+        assertEquals(2, cache.size());
+        // cold 1次、rising 6次未准入，hot 被淘汰1次
+        assertEquals(8, stats("admit").getEvictionCount());
+        get(cache, "hot", calls);
+        assertEquals(2, calls.get("hot").get());
+    }
+
+    @Test
+    public void leastRecentlyUsedExpiredResultIsEvictedFirst() throws Exception {
+        ResultCache cache = new ResultCache(ResultCacheTest.class.getName(), "expiredVictim", 1, 1);
+        HashMap<String, AtomicInteger> calls = new HashMap<>();
+        calls.put("old", new AtomicInteger());
+        calls.put("new", new AtomicInteger());
+        for (int i = 0; i < 5; i++) {
+            get(cache, "old", calls);
+        }
+        Thread.sleep(1100);
+        // old 已失效，即使频率更高也先被淘汰
+        get(cache, "new", calls);
+        get(cache, "new", calls);
+        assertEquals(1, calls.get("new").get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void concurrentMissesLoadOnce() throws Exception {
+        ResultCache cache = new ResultCache(ResultCacheTest.class.getName(), "stampede", 16, 60);
+        AtomicInteger calls = new AtomicInteger();
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return cache.get("k", () -> {
+                        calls.incrementAndGet();
+                        Thread.sleep(100);
+                        return Result.success("ok");
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> future : futures) {
+                assertEquals(Result.success("ok").getJsonString(), future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+        ResultCacheStats stats = stats("stampede");
+        assertEquals(1, stats.getMissCount());
+        assertEquals(threads - 1, stats.getHitCount());
+    }
+
+    @Test
+    public void invalidateAllDuringLoadDoesNotStoreResult() throws Exception {
+        ResultCache cache = new ResultCache(ResultCacheTest.class.getName(), "invalidate", 16, 60);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> future = pool.submit(() -> cache.get("k", () -> {
+                calls.incrementAndGet();
+                loading.countDown();
+                invalidated.await();
+                return Result.success("ok");
+            }));
+            loading.await();
+            cache.invalidateAll();
+            invalidated.countDown();
+            assertEquals(Result.success("ok").getJsonString(), future.get(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(0, cache.size());
+        cache.get("k", () -> loadSuccess(calls));
+        assertEquals(2, calls.get());
+    }
+
+    private static Result loadSuccess(AtomicInteger calls) {
+        calls.incrementAndGet();
+        return Result.success("ok");
+    }
+
+    private static String get(ResultCache cache, String key, HashMap<String, AtomicInteger> calls) throws Exception {
+        return cache.get(key, () -> loadSuccess(calls.get(key)));
+    }
+
+    private static ResultCacheStats stats(String methodName) {
+        for (ResultCacheStats stats : DispatcherMetrics.getInstance().getResultCacheStats()) {
+            if (ResultCacheTest.class.getName().equals(stats.getServiceName()) && methodName.equals(stats.getMethodName())) {
+                return stats;
+            }
+        }
+        throw new AssertionError("没有 " + methodName + " 的缓存统计");
+    }
+}
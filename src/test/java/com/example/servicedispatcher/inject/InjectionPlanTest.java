@@ -0,0 +1,73 @@
+package com.example.servicedispatcher.inject;
+
+import com.example.servicedispatcher.annotation.InjectType;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 注入计划只注入带注解、Logger 和 dao 的属性
+ */
+public class InjectionPlanTest {
+
+    public static class Helper {
+    }
+
+    public static class MissingDependency {
+    }
+
+    public static class SelfInitService {
+        private Helper helper = new Helper();
+        private Logger logger;
+    }
+
+    public static class AnnotatedService {
+        @InjectType
+        private Helper helper;
+    }
+
+    public static class RequiredService {
+        @InjectType
+        private MissingDependency missing;
+    }
+
+    private final Helper registered = new Helper();
+
+    @After
+    public void tearDown() {
+        DependencyRegistry.unregister(Helper.class);
+    }
+
+    @Test
+    public void fieldSetByServiceIsNotOverwritten() throws Exception {
+        DependencyRegistry.register(Helper.class, registered);
+        SelfInitService service = new SelfInitService();
+        Helper own = service.helper;
+        InjectionPlan.getPlan(SelfInitService.class).inject(service);
+        assertSame(own, service.helper);
+        assertNotNull(service.logger);
+    }
+
+    @Test
+    public void annotatedFieldIsInjectedByType() throws Exception {
+        DependencyRegistry.register(Helper.class, registered);
+        AnnotatedService service = new AnnotatedService();
+        InjectionPlan.getPlan(AnnotatedService.class).inject(service);
+        assertSame(registered, service.helper);
+    }
+
+    @Test(expected = Exception.class)
+    public void unregisteredDependencyIsNotInjected() throws Exception {
+        DependencyRegistry.register(Helper.class, registered);
+        DependencyRegistry.unregister(Helper.class);
+        InjectionPlan.getPlan(AnnotatedService.class).inject(new AnnotatedService());
+    }
+
+    @Test(expected = Exception.class)
+    public void annotatedFieldWithoutDependencyFails() throws Exception {
+        InjectionPlan.getPlan(RequiredService.class).inject(new RequiredService());
+    }
+}
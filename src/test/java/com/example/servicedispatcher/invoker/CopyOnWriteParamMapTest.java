@@ -0,0 +1,189 @@
+package com.example.servicedispatcher.invoker;
+
+import com.example.servicedispatcher.annotation.MethodName;
+import com.example.servicedispatcher.annotation.ParamHashMap;
+import com.example.servicedispatcher.result.Result;
+import org.junit.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 写时复制视图不修改主程序的 paramMap
+ */
+public class CopyOnWriteParamMapTest {
+
+    public static class ViewService {
+        Map<String, Object> lastView;
+
+        @MethodName("read")
+        public Result read(@ParamHashMap(copyOnWrite = true) Map<String, Object> paramMap) {
+            lastView = paramMap;
+            return Result.success(String.valueOf(paramMap.get("code")));
+        }
+
+        @MethodName("write")
+        public Result write(@ParamHashMap(copyOnWrite = true) Map<String, Object> paramMap) {
+            lastView = paramMap;
+            paramMap.put("code", "changed");
+            paramMap.remove("name");
+            return Result.success();
+        }
+    }
+
+    public static class HashMapViewService {
+        @MethodName("wrongType")
+        public Result wrongType(@ParamHashMap(copyOnWrite = true) HashMap<String, Object> paramMap) {
+            return Result.success();
+        }
+    }
+
+    @Test
+    public void readOnlyCallDoesNotCopy() throws Exception {
+        ViewService service = new ViewService();
+        HashMap<String, Object> paramMap = paramMap();
+        invoker("read").invoke(service, paramMap);
+        CopyOnWriteParamMap view = (CopyOnWriteParamMap) service.lastView;
+        assertFalse(view.isCopied());
+        assertEquals(paramMap(), paramMap);
+        assertEquals(paramMap, view);
+    }
+
+    @Test
+    public void writesGoToCopy() throws Exception {
+        ViewService service = new ViewService();
+        HashMap<String, Object> paramMap = paramMap();
+        invoker("write").invoke(service, paramMap);
+        CopyOnWriteParamMap view = (CopyOnWriteParamMap) service.lastView;
+        assertTrue(view.isCopied());
+        assertEquals("changed", view.get("code"));
+        assertFalse(view.containsKey("name"));
+        assertEquals(paramMap(), paramMap);
+    }
+
+    @Test
+    public void firstModificationCopies() {
+        String[] operations = {"put", "putAll", "remove", "clear", "replaceAll"};
+        for (String operation : operations) {
+            HashMap<String, Object> source = paramMap();
+            CopyOnWriteParamMap view = new CopyOnWriteParamMap(source);
+            switch (operation) {
+                case "put":
+                    view.put("code", "changed");
+                    break;
+                case "putAll":
+                    HashMap<String, Object> other = new HashMap<>();
+                    other.put("extra", 1);
+                    view.putAll(other);
+                    break;
+                case "remove":
+                    assertEquals("A", view.remove("code"));
+                    break;
+                case "clear":
+                    view.clear();
+                    break;
+                default:
+                    view.replaceAll((k, v) -> "x");
+                    break;
+            }
+            assertTrue(operation, view.isCopied());
+            assertEquals(operation, paramMap(), source);
+            assertFalse(operation, view.equals(source));
+        }
+    }
+
+    @Test
+    public void removingAbsentKeyDoesNotCopy() {
+        HashMap<String, Object> source = paramMap();
+        CopyOnWriteParamMap view = new CopyOnWriteParamMap(source);
+        assertNull(view.remove("missing"));
+        assertFalse(view.isCopied());
+    }
+
+    @Test
+    public void viewsBeforeCopyAreReadOnly() {
+        HashMap<String, Object> source = paramMap();
+        CopyOnWriteParamMap view = new CopyOnWriteParamMap(source);
+        Iterator<String> keys = view.keySet().iterator();
+        Iterator<Object> values = view.values().iterator();
+        Iterator<Map.Entry<String, Object>> entries = view.entrySet().iterator();
+        for (Iterator<?> iterator : new Iterator<?>[]{keys, values, entries}) {
+            iterator.next();
+            try {
+                iterator.remove();
+                fail("复制前的视图不能修改");
+            } catch (UnsupportedOperationException expected) {
+                // 预期的异常
+            }
+        }
+        try {
+            view.entrySet().iterator().next().setValue("changed");
+            fail("复制前的视图不能修改");
+        } catch (UnsupportedOperationException expected) {
+            // 预期的异常
+        }
+        assertFalse(view.isCopied());
+        assertEquals(paramMap(), source);
+    }
+
+    @Test
+    public void viewsAfterCopyReflectCopy() {
+        HashMap<String, Object> source = paramMap();
+        CopyOnWriteParamMap view = new CopyOnWriteParamMap(source);
+        Set<String> keysBeforeCopy = view.keySet();
+        view.put("extra", 1);
+        assertFalse(keysBeforeCopy.contains("extra"));
+        Iterator<String> keys = view.keySet().iterator();
+        while (keys.hasNext()) {
+            if ("code".equals(keys.next())) {
+                keys.remove();
+            }
+        }
+        assertEquals(2, view.size());
+        assertEquals(paramMap(), source);
+    }
+
+    @Test
+    public void concurrentModificationOfCopyIsDetected() {
+        CopyOnWriteParamMap view = new CopyOnWriteParamMap(paramMap());
+        view.put("extra", 1);
+        try {
+            for (String key : view.keySet()) {
+                view.remove(key);
+            }
+            fail("遍历时修改副本应抛出异常");
+        } catch (ConcurrentModificationException expected) {
+            // 预期的异常
+        }
+    }
+
+    @Test
+    public void hashMapTypeIsRejected() throws Exception {
+        try {
+            MethodInvoker.create(HashMapViewService.class, HashMapViewService.class.getMethod("wrongType", HashMap.class));
+            fail("写时复制视图的入参类型必须是 Map");
+        } catch (Exception e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("类型必须是 Map"));
+        }
+    }
+
+    private static MethodInvoker invoker(String methodName) throws Exception {
+        return MethodInvoker.create(ViewService.class, ViewService.class.getMethod(methodName, Map.class));
+    }
+
+    private static HashMap<String, Object> paramMap() {
+        HashMap<String, Object> paramMap = new HashMap<>();
+        paramMap.put("code", "A");
+        paramMap.put("name", "张三");
+        return paramMap;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.servicedispatcher.invoker;
+
+import com.example.servicedispatcher.annotation.MethodName;
+import com.example.servicedispatcher.annotation.ParamDto;
+import com.example.servicedispatcher.annotation.ParamHashMap;
+import com.example.servicedispatcher.result.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务方法调用的基准：原有的反射方式与预编译的 MethodInvoker
+ *
+ * reflective 与改造前 ServiceDispatcher 的做法一致：每次调用读取入参、判断注解、按名称取值，再用 Method.invoke 调用；
+ * methodInvoker 使用创建时生成的入参绑定计划和 MethodHandle。
+ * 运行：
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test.cp -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test.cp) com.example.servicedispatcher.invoker.MethodInvokerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodInvokerBenchmark {
+
+    public static class QueryService {
+        @MethodName("query")
+        public Result query(String patientId, Integer visitNo, Long orderId) {
+            return Result.success(patientId);
+        }
+    }
+
+    private QueryService service;
+    private Method method;
+    private MethodInvoker methodInvoker;
+    private HashMap<String, Object> paramMap;
+
+    @Setup
+    public void setUp() throws Exception {
+        service = new QueryService();
+        method = QueryService.class.getMethod("query", String.class, Integer.class, Long.class);
+        methodInvoker = MethodInvoker.create(QueryService.class, method);
+        paramMap = new HashMap<>();
+        paramMap.put("patientId", "P0001");
+        paramMap.put("visitNo", 3);
+        paramMap.put("orderId", 1000L);
+    }
+
+    @Benchmark
+    public Result reflective() throws Exception {
+        Parameter[] parameters = method.getParameters();
+        Object[] paramArray = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Parameter param = parameters[i];
+            if (param.isAnnotationPresent(ParamHashMap.class) || param.isAnnotationPresent(ParamDto.class)) {
+                continue;
+            }
+            Object obj = paramMap.get(param.getName());
+            if (obj != null && param.getType().isAssignableFrom(obj.getClass())) {
+                paramArray[i] = obj;
+            }
+        }
+        try {
+            return (Result) method.invoke(service, paramArray);
+        } catch (InvocationTargetException e) {
+            throw (Exception) e.getTargetException();
+        }
+    }
+
+    @Benchmark
+    public Result methodInvoker() throws Exception {
+        return methodInvoker.invoke(service, paramMap);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(MethodInvokerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.servicedispatcher.invoker;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * 入参类型转换的成功和拒绝情况
+ */
+public class ValueConvertersTest {
+
+    enum Color {
+        RED, GREEN
+    }
+
+    private static final LocalDateTime DATE_TIME = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+    private static final long DATE_TIME_MILLIS = DATE_TIME.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+    /**
+     * 目标类型、输入值、期望值
+     */
+    private static final Object[][] CONVERTED = {
+            {int.class, 5L, 5},
+            {int.class, "12", 12},
+            {int.class, 3.0D, 3},
+            {int.class, new BigDecimal("7.00"), 7},
+            {long.class, "9007199254740993", 9007199254740993L},
+            {short.class, 32767, (short) 32767},
+            {byte.class, "-128", (byte) -128},
+            {double.class, "1.5", 1.5D},
+            {double.class, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY},
+            {float.class, 0.5D, 0.5F},
+            {float.class, "-Infinity", Float.NEGATIVE_INFINITY},
+            {float.class, Double.NaN, Float.NaN},
+            {BigInteger.class, "123", BigInteger.valueOf(123)},
+            {BigDecimal.class, 2L, BigDecimal.valueOf(2)},
+            {boolean.class, "TRUE", true},
+            {boolean.class, "0", false},
+            {boolean.class, 1, true},
+            {char.class, "x", 'x'},
+            {String.class, 42, "42"},
+            {String.class, Color.GREEN, "GREEN"},
+            {Color.class, "RED", Color.RED},
+            {Color.class, " GREEN ", Color.GREEN},
+            {Color.class, 1, Color.GREEN},
+            {Color.class, 0L, Color.RED},
+            {LocalDateTime.class, "2024-01-02 03:04:05", DATE_TIME},
+            {LocalDateTime.class, "2024-01-02T03:04:05", DATE_TIME},
+            {LocalDateTime.class, "2024-01-02 03:04", DATE_TIME.withSecond(0)},
+            {LocalDateTime.class, "2024-01-02T03:04:05.123", DATE_TIME.withNano(123000000)},
+            {LocalDateTime.class, "2024-01-02", LocalDateTime.of(2024, 1, 2, 0, 0)},
+            {LocalDate.class, "2024-01-02T03:04:05", LocalDate.of(2024, 1, 2)},
+            {Date.class, DATE_TIME_MILLIS, new Date(DATE_TIME_MILLIS)},
+            {Date.class, "2024-01-02T03:04:05", new Date(DATE_TIME_MILLIS)},
+            {Date.class, String.valueOf(DATE_TIME_MILLIS), new Date(DATE_TIME_MILLIS)},
+            {Timestamp.class, "2024-01-02 03:04:05.123", Timestamp.valueOf(DATE_TIME.withNano(123000000))},
+            {java.sql.Date.class, "2024-01-02", new java.sql.Date(LocalDate.of(2024, 1, 2).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli())},
+    };
+
+    /**
+     * 目标类型、不能转换的输入值
+     */
+    private static final Object[][] REJECTED = {
+            {int.class, 2147483648L},
+            {int.class, "1.5"},
+            {int.class, 2.5D},
+            {long.class, new BigDecimal("9223372036854775808")},
+            {long.class, "abc"},
+            {short.class, 32768},
+            {short.class, -32769L},
+            {byte.class, 128},
+            {byte.class, "0.1"},
+            {float.class, 1e300D},
+            {float.class, "1e40"},
+            {float.class, new BigDecimal("-1e39")},
+            {double.class, "1e400"},
+            {double.class, new BigDecimal("1e400")},
+            {BigInteger.class, "1.5"},
+            {boolean.class, "yes"},
+            {boolean.class, 1.0D},
+            {char.class, "ab"},
+            {String.class, new Object()},
+            {Color.class, "BLUE"},
+            {Color.class, 2},
+            {Color.class, -1},
+            {Color.class, 1.0D},
+            {LocalDateTime.class, "2024/01/02"},
+            {Date.class, true},
+    };
+
+    @Test
+    public void convertsSupportedValues() {
+        for (Object[] row : CONVERTED) {
+            Class<?> type = (Class<?>) row[0];
+            Object converted = ValueConverters.forType(type).convert(row[1]);
+            assertEquals(type.getSimpleName() + " <- " + row[1], row[2], converted);
+        }
+    }
+
+    @Test
+    public void rejectsOverflowFractionAndUnknownValues() {
+        for (Object[] row : REJECTED) {
+            Class<?> type = (Class<?>) row[0];
+            try {
+                Object converted = ValueConverters.forType(type).convert(row[1]);
+                fail(type.getSimpleName() + " <- " + row[1] + " 应不能转换，实际为 " + converted);
+            } catch (RuntimeException expected) {
+                // 预期的异常
+            }
+        }
+    }
+
+    @Test
+    public void sameTypeIsReturnedAsIs() {
+        BigDecimal decimal = new BigDecimal("1.10");
+        assertEquals(decimal.scale(), ((BigDecimal) ValueConverters.forType(BigDecimal.class).convert(decimal)).scale());
+        Object value = new Object();
+        assertEquals(value, ValueConverters.forType(Object.class).convert(value));
+    }
+
+    @Test
+    public void primitiveDefaults() {
+        Object[][] defaults = {
+                {boolean.class, false}, {char.class, '\0'}, {byte.class, (byte) 0}, {short.class, (short) 0},
+                {int.class, 0}, {long.class, 0L}, {float.class, 0F}, {double.class, 0D},
+                {Integer.class, null}, {String.class, null},
+        };
+        for (Object[] row : defaults) {
+            assertEquals(String.valueOf(row[0]), row[1], ValueConverters.defaultValue((Class<?>) row[0]));
+        }
+    }
+}
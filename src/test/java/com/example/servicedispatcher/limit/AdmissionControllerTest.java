@@ -0,0 +1,158 @@
+package com.example.servicedispatcher.limit;
+
+import com.example.servicedispatcher.metrics.AdmissionStats;
+import com.example.servicedispatcher.metrics.DispatcherMetrics;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 令牌桶、并发数、等待截止时间和运行时修改限制
+ */
+public class AdmissionControllerTest {
+
+    @Test
+    public void burstIsOneSecondOfPermits() {
+        AdmissionController controller = controller("burst", new MethodLimit(0, 10, 0));
+        for (int i = 0; i < 10; i++) {
+            assertNull(controller.tryAcquire());
+            controller.release();
+        }
+        assertNotNull(controller.tryAcquire());
+        AdmissionStats stats = stats("burst");
+        assertEquals(10, stats.getAdmittedCount());
+        assertEquals(1, stats.getRateRejectedCount());
+        assertEquals(0, stats.getInFlight());
+    }
+
+    @Test
+    public void rateWaitsForNextTokenWithinDeadline() {
+        AdmissionController controller = controller("rateWait", new MethodLimit(0, 10, 250));
+        for (int i = 0; i < 10; i++) {
+            assertNull(controller.tryAcquire());
+            controller.release();
+        }
+        long start = System.nanoTime();
+        assertNull(controller.tryAcquire());
+        controller.release();
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // 令牌间隔 100ms
+        assertTrue("等待了 " + waitedMillis + " ms", waitedMillis >= 80 && waitedMillis < 250);
+        assertEquals(1, stats("rateWait").getWaitedCount());
+    }
+
+    @Test
+    public void rateRejectsAtOnceWhenTokenIsPastDeadline() {
+        AdmissionController controller = controller("rateDeadline", new MethodLimit(0, 2, 100));
+        for (int i = 0; i < 2; i++) {
+            assertNull(controller.tryAcquire());
+            controller.release();
+        }
+        long start = System.nanoTime();
+        // 下一个令牌在 500ms 后，超过等待上限，不等待直接拒绝
+        assertNotNull(controller.tryAcquire());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 50);
+    }
+
+    @Test
+    public void concurrencyLimitRejectsWithoutWait() {
+        AdmissionController controller = controller("concurrency", new MethodLimit(2, 0, 0));
+        assertNull(controller.tryAcquire());
+        assertNull(controller.tryAcquire());
+        assertNotNull(controller.tryAcquire());
+        controller.release();
+        assertNull(controller.tryAcquire());
+        controller.release();
+        controller.release();
+        AdmissionStats stats = stats("concurrency");
+        assertEquals(1, stats.getConcurrencyRejectedCount());
+        assertEquals(0, stats.getInFlight());
+    }
+
+    @Test
+    public void concurrencyWaitEndsAtDeadline() {
+        AdmissionController controller = controller("concurrencyDeadline", new MethodLimit(1, 0, 100));
+        assertNull(controller.tryAcquire());
+        long start = System.nanoTime();
+        assertNotNull(controller.tryAcquire());
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("等待了 " + waitedMillis + " ms", waitedMillis >= 90 && waitedMillis < 1000);
+        controller.release();
+    }
+
+    @Test
+    public void concurrencyWaitAdmitsWhenSlotIsReleased() throws Exception {
+        AdmissionController controller = controller("concurrencyRelease", new MethodLimit(1, 0, 5000));
+        assertNull(controller.tryAcquire());
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            controller.release();
+        });
+        releaser.start();
+        long start = System.nanoTime();
+        assertNull(controller.tryAcquire());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+        controller.release();
+        releaser.join();
+        assertEquals(1, stats("concurrencyRelease").getWaitedCount());
+    }
+
+    @Test
+    public void setLimitTakesEffectForLaterCalls() {
+        AdmissionController controller = controller("reload", new MethodLimit(1, 0, 0));
+        assertNull(controller.tryAcquire());
+        assertNotNull(controller.tryAcquire());
+        controller.setLimit(new MethodLimit(2, 0, 0));
+        assertNull(controller.tryAcquire());
+        controller.release();
+        controller.release();
+
+        controller.setLimit(new MethodLimit(0, 1, 0));
+        assertNull(controller.tryAcquire());
+        controller.release();
+        assertNotNull(controller.tryAcquire());
+        // 修改每秒调用数时令牌桶重新装满
+        controller.setLimit(new MethodLimit(0, 100, 0));
+        assertNull(controller.tryAcquire());
+        controller.release();
+
+        controller.setLimit(MethodLimit.unlimited());
+        for (int i = 0; i < 1000; i++) {
+            assertNull(controller.tryAcquire());
+            controller.release();
+        }
+    }
+
+    @Test
+    public void jmxUpdateReloadsLimit() {
+        AdmissionController controller = controller("jmx", new MethodLimit(1, 0, 0));
+        assertNull(controller.tryAcquire());
+        assertNotNull(controller.tryAcquire());
+        DispatcherMetrics.getInstance().setMethodLimit(AdmissionControllerTest.class.getName(), "jmx", 3, 0, 0);
+        assertEquals(3, controller.getLimit().getMaxConcurrency());
+        assertNull(controller.tryAcquire());
+        assertEquals(3, stats("jmx").getMaxConcurrency());
+    }
+
+    private static AdmissionController controller(String methodName, MethodLimit limit) {
+        return new AdmissionController(AdmissionControllerTest.class.getName(), methodName, limit);
+    }
+
+    private static AdmissionStats stats(String methodName) {
+        for (AdmissionStats stats : DispatcherMetrics.getInstance().getAdmissionStats()) {
+            if (AdmissionControllerTest.class.getName().equals(stats.getServiceName()) && methodName.equals(stats.getMethodName())) {
+                return stats;
+            }
+        }
+        throw new AssertionError("没有 " + methodName + " 的准入统计");
+    }
+}
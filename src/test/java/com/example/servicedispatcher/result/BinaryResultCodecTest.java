@@ -0,0 +1,188 @@
+package com.example.servicedispatcher.result;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 二进制编解码的往返和错误数据
+ */
+public class BinaryResultCodecTest {
+
+    private final BinaryResultCodec codec = new BinaryResultCodec();
+
+    @Test
+    public void varintBoundariesRoundTrip() throws IOException {
+        int[] ints = {0, 1, -1, 63, -64, 64, -65, 8191, -8192, 8192, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        long[] longs = {0L, -1L, (1L << 35), -(1L << 35), (1L << 56) - 1, Long.MAX_VALUE, Long.MIN_VALUE};
+        Result result = Result.success("ok");
+        for (int i = 0; i < ints.length; i++) {
+            result.putData("i" + i, ints[i]);
+        }
+        for (int i = 0; i < longs.length; i++) {
+            result.putData("l" + i, longs[i]);
+        }
+        Result decoded = codec.decode(codec.encode(result));
+        for (int i = 0; i < ints.length; i++) {
+            assertEquals(ints[i], decoded.getData().get("i" + i));
+        }
+        for (int i = 0; i < longs.length; i++) {
+            assertEquals(longs[i], decoded.getData().get("l" + i));
+        }
+    }
+
+    @Test
+    public void valueTypesRoundTrip() throws IOException {
+        Map<String, Object> nested = new HashMap<>();
+        nested.put("list", Arrays.asList(1, "二", null, true));
+        Result result = Result.fail("禁止 😀")
+                .putData("string", "")
+                .putData("double", 1.5D)
+                .putData("nan", Double.NaN)
+                .putData("float", -0.25F)
+                .putData("decimal", new BigDecimal("12345678901234567890.123"))
+                .putData("bigInteger", new BigInteger("-123456789012345678901234567890"))
+                .putData("date", new Date(1700000000123L))
+                .putData("bytes", new byte[]{0, -1, 127})
+                .putData("array", new Object[]{"a", 1L})
+                .putData("nested", nested);
+        Result decoded = codec.decode(codec.encode(result));
+        Map<String, Object> data = decoded.getData();
+        assertEquals("3", decoded.getCode());
+        assertEquals("禁止 😀", decoded.getMessage());
+        assertEquals("", data.get("string"));
+        assertEquals(1.5D, data.get("double"));
+        assertTrue(((Double) data.get("nan")).isNaN());
+        assertEquals(-0.25F, data.get("float"));
+        assertEquals(new BigDecimal("12345678901234567890.123"), data.get("decimal"));
+        assertEquals(new BigInteger("-123456789012345678901234567890"), data.get("bigInteger"));
+        assertEquals(new Date(1700000000123L), data.get("date"));
+        assertArrayEquals(new byte[]{0, -1, 127}, (byte[]) data.get("bytes"));
+        assertEquals(Arrays.asList("a", 1L), data.get("array"));
+        assertEquals(nested, data.get("nested"));
+    }
+
+    @Test
+    public void streamEncodingMatchesByteArray() throws IOException {
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            large.append("医嘱");
+        }
+        Result result = Result.success().putData("large", large.toString());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.encode(result, out);
+        assertArrayEquals(codec.encode(result), out.toByteArray());
+    }
+
+    @Test
+    public void encodeRejectsNestingBeyondLimit() {
+        Map<String, Object> root = new HashMap<>();
+        Map<String, Object> current = root;
+        for (int i = 0; i < 100; i++) {
+            Map<String, Object> child = new HashMap<>();
+            current.put("child", child);
+            current = child;
+        }
+        try {
+            codec.encode(Result.success().putData("root", root));
+            fail("嵌套层数超过上限时应抛出异常");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains("嵌套"));
+        }
+    }
+
+    @Test
+    public void encodeRejectsCircularReference() {
+        List<Object> list = new ArrayList<>();
+        list.add(list);
+        try {
+            codec.encode(Result.success().putData("list", list));
+            fail("循环引用时应抛出异常");
+        } catch (IOException expected) {
+            // 预期的异常
+        }
+    }
+
+    @Test
+    public void decodeRejectsNestingBeyondLimit() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // 版本、code、message
+        out.write(1);
+        out.write(0);
+        out.write(0);
+        // 100 层只有一个元素的集合
+        for (int i = 0; i < 100; i++) {
+            out.write(13);
+            out.write(2);
+        }
+        out.write(0);
+        assertDecodeFails(out.toByteArray());
+    }
+
+    @Test
+    public void decodeRejectsLengthBeyondInput() throws IOException {
+        byte[] bytes = codec.encode(Result.success("hello"));
+        // 版本、code 类型、code 长度、"0"、message 类型，之后是 message 的长度
+        int lengthIndex = 5;
+        assertEquals(10, bytes[lengthIndex]);
+        bytes[lengthIndex] = 100;
+        assertDecodeFails(bytes);
+        // 负数长度
+        bytes[lengthIndex] = 1;
+        assertDecodeFails(bytes);
+    }
+
+    @Test
+    public void decodeRejectsTruncatedInput() throws IOException {
+        byte[] bytes = codec.encode(Result.success("hello").putData("value", 1.5D));
+        for (int length = 0; length < bytes.length; length++) {
+            assertDecodeFails(Arrays.copyOf(bytes, length));
+        }
+    }
+
+    @Test
+    public void decodeRejectsOverlongVarint() {
+        byte[] bytes = new byte[14];
+        bytes[0] = 1;
+        bytes[1] = 3;
+        Arrays.fill(bytes, 2, bytes.length, (byte) 0xFF);
+        assertDecodeFails(bytes);
+    }
+
+    @Test
+    public void decodeRejectsUnknownVersionAndType() {
+        assertDecodeFails(new byte[]{2, 0, 0, 12, 0});
+        assertDecodeFails(new byte[]{1, 99});
+    }
+
+    @Test
+    public void binaryIsSmallerThanJson() throws IOException {
+        Result payload = ResultCodecBenchmark.samplePayload();
+        int jsonSize = new JsonResultCodec().encode(payload).length;
+        int binarySize = codec.encode(payload).length;
+        assertTrue("json " + jsonSize + " 字节，二进制 " + binarySize + " 字节", binarySize < jsonSize);
+    }
+
+    private void assertDecodeFails(byte[] bytes) {
+        try {
+            codec.decode(bytes);
+            fail("错误数据应抛出异常：" + Arrays.toString(bytes));
+        } catch (IOException expected) {
+            // 预期的异常
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.servicedispatcher.result;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 返回值编解码的基准：json 与二进制格式的编码、解码耗时，运行前输出两种格式的字节数
+ *
+ * 运行：
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test.cp -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test.cp) com.example.servicedispatcher.result.ResultCodecBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultCodecBenchmark {
+
+    private final ResultCodec jsonCodec = new JsonResultCodec();
+    private final ResultCodec binaryCodec = new BinaryResultCodec();
+    private Result result;
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+
+    /**
+     * 典型的返回数据：100 条医嘱，每条包含数值、金额、时间和中文字符串
+     */
+    static Result samplePayload() {
+        List<HashMap<String, Object>> orders = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            HashMap<String, Object> order = new HashMap<>();
+            order.put("orderId", 100000000L + i);
+            order.put("patientId", "P" + (20000 + i));
+            order.put("visitNo", i % 5);
+            order.put("itemName", "阿莫西林胶囊 0.25g");
+            order.put("price", new BigDecimal("12.50"));
+            order.put("quantity", 2.0D);
+            order.put("orderTime", new Date(1700000000000L + i * 60000L));
+            order.put("selfPay", i % 3 == 0);
+            orders.add(order);
+        }
+        return Result.success("校验通过").putData("orders", orders).putData("total", orders.size());
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        result = samplePayload();
+        jsonBytes = jsonCodec.encode(result);
+        binaryBytes = binaryCodec.encode(result);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() throws IOException {
+        return jsonCodec.encode(result);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() throws IOException {
+        return binaryCodec.encode(result);
+    }
+
+    @Benchmark
+    public Result jsonDecode() throws IOException {
+        return jsonCodec.decode(jsonBytes);
+    }
+
+    @Benchmark
+    public Result binaryDecode() throws IOException {
+        return binaryCodec.decode(binaryBytes);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Result payload = samplePayload();
+        System.out.println("json 字节数：" + new JsonResultCodec().encode(payload).length
+                + "，二进制字节数：" + new BinaryResultCodec().encode(payload).length);
+        new Runner(new OptionsBuilder().include(ResultCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}